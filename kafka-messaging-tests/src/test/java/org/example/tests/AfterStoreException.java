@@ -0,0 +1,20 @@
+package org.example.tests;
+
+/**
+ * The order is in the table, but an after-store hook (changelog, cache, archive) failed or did not finish in time.
+ * Unlike {@link SinkUnavailableException} this may be the record's own fault, so the error handler redelivers it a
+ * few times and then dead-letters it rather than stalling the partition.
+ */
+class AfterStoreException extends RuntimeException {
+
+    AfterStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    static boolean isCause(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof AfterStoreException) return true;
+        }
+        return false;
+    }
+}
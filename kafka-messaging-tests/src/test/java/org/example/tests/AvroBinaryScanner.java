@@ -0,0 +1,156 @@
+package org.example.tests;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+
+/**
+ * Structural check of raw Avro binary against a writer schema without decoding it: it walks varints, lengths
+ * and union branches, checks that every length stays inside the buffer and that the datum ends exactly at
+ * the end of the payload. A {@code decimal} held in bytes must be 1 to as many bytes as its precision needs. Nothing
+ * is allocated and invalid input is reported as {@code false}, never thrown.
+ * <p>
+ * Optionally records where top-level string or bytes fields sit, so callers can pull out a key or a total
+ * without decoding.
+ */
+final class AvroBinaryScanner {
+
+    private static final Schema STRING = Schema.create(Schema.Type.STRING);
+    private static final double LOG2_10 = Math.log(10) / Math.log(2);
+
+    private final Schema schema;
+    private final int[] spanFields;   // field positions, in the order their spans are reported
+
+    AvroBinaryScanner(Schema schema, String... spanFields) {
+        if (schema.getType() != Schema.Type.RECORD) throw new IllegalArgumentException("record schema expected");
+        this.schema = schema;
+        this.spanFields = new int[spanFields.length];
+        for (int i = 0; i < spanFields.length; i++) {
+            Schema.Field f = schema.getField(spanFields[i]);
+            if (f == null || (f.schema().getType() != Schema.Type.STRING && f.schema().getType() != Schema.Type.BYTES)) {
+                throw new IllegalArgumentException("span field must be a top-level string or bytes: " + spanFields[i]);
+            }
+            this.spanFields[i] = f.pos();
+        }
+    }
+
+    /**
+     * @param spans if non-null, receives {offset, length} of each span field's bytes, at {@code 2 * i} for the
+     *              {@code i}-th field given to the constructor
+     * @return true if {@code data[off, off+len)} is exactly one datum of the schema
+     */
+    boolean scan(byte[] data, int off, int len, int[] spans) {
+        int end = off + len;
+        int pos = off;
+        for (Schema.Field f : schema.getFields()) {
+            for (int i = 0; spans != null && i < spanFields.length; i++) {
+                if (spanFields[i] != f.pos()) continue;
+                long n = readLong(data, pos, end);
+                if (n < 0) return false;
+                spans[2 * i] = pos + varintSize(data, pos);
+                spans[2 * i + 1] = (int) n;
+            }
+            pos = skip(f.schema(), data, pos, end);
+            if (pos < 0) return false;
+        }
+        return pos == end;
+    }
+
+    private static int skip(Schema s, byte[] d, int pos, int end) {
+        switch (s.getType()) {
+            case NULL: return pos;
+            case BOOLEAN: return pos < end && (d[pos] & 0xff) <= 1 ? pos + 1 : -1;
+            case INT:
+            case LONG: return varintEnd(d, pos, end);
+            case ENUM: {
+                long idx = readLong(d, pos, end);
+                return idx >= 0 && idx < s.getEnumSymbols().size() ? varintEnd(d, pos, end) : -1;
+            }
+            case FLOAT: return pos + 4 <= end ? pos + 4 : -1;
+            case DOUBLE: return pos + 8 <= end ? pos + 8 : -1;
+            case FIXED: return pos + s.getFixedSize() <= end ? pos + s.getFixedSize() : -1;
+            case STRING:
+            case BYTES: {
+                long n = readLong(d, pos, end);
+                if (n < 0) return -1;
+                if (s.getLogicalType() instanceof LogicalTypes.Decimal dec && (n == 0 || n > decimalBytes(dec.getPrecision()))) {
+                    return -1;
+                }
+                int start = pos + varintSize(d, pos);
+                return n <= end - start ? start + (int) n : -1;
+            }
+            case UNION: {
+                long branch = readLong(d, pos, end);
+                if (branch < 0 || branch >= s.getTypes().size()) return -1;
+                return skip(s.getTypes().get((int) branch), d, pos + varintSize(d, pos), end);
+            }
+            case RECORD: {
+                for (Schema.Field f : s.getFields()) {
+                    pos = skip(f.schema(), d, pos, end);
+                    if (pos < 0) return -1;
+                }
+                return pos;
+            }
+            case ARRAY:
+            case MAP: {
+                // blocks of (count, items), terminated by count 0; negative count is followed by a byte size
+                while (true) {
+                    long count = readLong(d, pos, end);
+                    if (count == Long.MIN_VALUE) return -1;
+                    pos += varintSize(d, pos);
+                    if (count == 0) return pos;
+                    if (count < 0) {
+                        count = -count;
+                        if (readLong(d, pos, end) < 0) return -1;
+                        pos += varintSize(d, pos);
+                    }
+                    // every item but null takes at least a byte; bounds the loop on hostile counts
+                    if (count > end - pos) return -1;
+                    for (long i = 0; i < count; i++) {
+                        if (s.getType() == Schema.Type.MAP) {
+                            pos = skip(STRING, d, pos, end);
+                            if (pos < 0) return -1;
+                        }
+                        pos = skip(s.getType() == Schema.Type.MAP ? s.getValueType() : s.getElementType(), d, pos, end);
+                        if (pos < 0) return -1;
+                    }
+                }
+            }
+            default: return -1;
+        }
+    }
+
+    /** Two's-complement bytes of the widest unscaled value of {@code precision} digits, sign bit included. */
+    static int decimalBytes(int precision) {
+        return (int) Math.ceil((precision * LOG2_10 + 1) / 8);
+    }
+
+    /** End of the varint at {@code pos}, or -1 if truncated or longer than 10 bytes. */
+    static int varintEnd(byte[] d, int pos, int end) {
+        for (int i = pos, max = Math.min(end, pos + 10); i < max; i++) {
+            if ((d[i] & 0x80) == 0) return i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Zig-zag varint at {@code pos}; {@code Long.MIN_VALUE} if malformed. Only used for lengths, counts and
+     * indexes, where that value can never be legal.
+     */
+    static long readLong(byte[] d, int pos, int end) {
+        long raw = 0;
+        for (int shift = 0, i = pos; shift < 70; shift += 7, i++) {
+            if (i >= end) return Long.MIN_VALUE;
+            int b = d[i] & 0xff;
+            raw |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return (raw >>> 1) ^ -(raw & 1);
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /** Size of the varint at {@code pos}; only call after {@link #readLong} accepted it. */
+    private static int varintSize(byte[] d, int pos) {
+        int n = 1;
+        while ((d[pos + n - 1] & 0x80) != 0) n++;
+        return n;
+    }
+}
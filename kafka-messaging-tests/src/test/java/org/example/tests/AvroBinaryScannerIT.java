@@ -0,0 +1,79 @@
+package org.example.tests;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvroBinaryScannerIT {
+
+    private final AvroBinaryScanner scanner = new AvroBinaryScanner(OrderCreated.getClassSchema(), "customerId");
+
+    static byte[] rawV2(String orderId, String customerId, String promotionCode) throws Exception {
+        return rawV2(orderId, customerId, promotionCode, new BigDecimal("19.99").movePointRight(2).unscaledValue().toByteArray());
+    }
+
+    /** With {@code total} as the given unscaled bytes, valid for decimal(10,2) or not. */
+    static byte[] rawV2(String orderId, String customerId, String promotionCode, byte[] total) throws Exception {
+        OrderCreated evt = new OrderCreated("EVT-" + orderId, orderId, customerId, ByteBuffer.wrap(total),
+                Instant.now(), promotionCode);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder enc = EncoderFactory.get().binaryEncoder(out, null);
+        new SpecificDatumWriter<>(OrderCreated.class).write(evt, enc);
+        enc.flush();
+        return out.toByteArray();
+    }
+
+    @Test
+    void acceptsWellFormedV2_andLocatesKey() throws Exception {
+        for (String promo : new String[] {null, "SAVE10"}) {
+            byte[] body = rawV2("ORD-S1", "C-scan", promo);
+            int[] key = new int[2];
+            assertThat(scanner.scan(body, 0, body.length, key)).isTrue();
+            assertThat(new String(body, key[0], key[1], UTF_8)).isEqualTo("C-scan");
+        }
+    }
+
+    @Test
+    void rejectsTruncatedTrailingAndCorruptPayloads() throws Exception {
+        byte[] body = rawV2("ORD-S2", "C-scan", "SAVE10");
+
+        assertThat(scanner.scan(body, 0, body.length - 1, null)).as("truncated").isFalse();
+        byte[] trailing = Arrays.copyOf(body, body.length + 1);
+        assertThat(scanner.scan(trailing, 0, trailing.length, null)).as("trailing bytes").isFalse();
+
+        byte[] badUnion = body.clone();
+        // promotionCode branch index sits right after ts; v2 has only branches 0 and 1
+        int unionAt = body.length - 1 - "SAVE10".length() - 1;
+        badUnion[unionAt] = 0x04;
+        assertThat(scanner.scan(badUnion, 0, badUnion.length, null)).as("union branch 2").isFalse();
+
+        byte[] hugeLength = body.clone();
+        hugeLength[0] = (byte) 0xfe;   // eventId length varint now runs into the following bytes
+        assertThat(scanner.scan(hugeLength, 0, hugeLength.length, null)).as("length past end").isFalse();
+    }
+
+    @Test
+    void rejectsDecimalTotalsOfNoBytes_orMoreThanPrecisionTenNeeds() throws Exception {
+        assertThat(AvroBinaryScanner.decimalBytes(10)).isEqualTo(5);
+        byte[] widest = new BigDecimal("-99999999.99").movePointRight(2).unscaledValue().toByteArray();
+        assertThat(widest).hasSize(5);
+        byte[] ok = rawV2("ORD-S3", "C-scan", null, widest);
+        assertThat(scanner.scan(ok, 0, ok.length, null)).isTrue();
+
+        byte[] empty = rawV2("ORD-S4", "C-scan", null, new byte[0]);
+        assertThat(scanner.scan(empty, 0, empty.length, null)).as("0-byte total").isFalse();
+        byte[] wide = rawV2("ORD-S5", "C-scan", null, new byte[] {0, 0, 0, 0, 0, 1});
+        assertThat(scanner.scan(wide, 0, wide.length, null)).as("6-byte total").isFalse();
+    }
+}
@@ -1,9 +1,12 @@
 package org.example.tests;
 
-import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.example.avro.v2.OrderCreated;
@@ -11,15 +14,18 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.CommonErrorHandler;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @TestConfiguration
@@ -38,27 +44,131 @@ public class AvroKafkaTestConfig {
     @Value("${app.topics.dlq:orders.DLQ}")
     private String dlqTopic;
 
+    @Value("${app.topics.latest:orders.latest}")
+    private String latestTopic;
+
+    @Value("${app.topics.orders-priority:orders.created.priority}")
+    private String priorityTopic;
+
+    @Value("${app.avro.resolver-cache.size:64}")
+    int resolverCacheSize;
+
+    // specific = full OrderCreated; projection = only TestApp.OrderService.DECODED_FIELDS
+    @Value("${app.avro.decode-mode:specific}")
+    String decodeMode;
+
+    // Decode into a ring of reused records; only safe while the listener does not keep records past the call
+    @Value("${app.avro.reuse-records:false}")
+    boolean reuseRecords;
+
+    // record | count | time | hybrid, see CommitPolicy
+    @Value("${app.consumer.commit.policy:record}")
+    String commitPolicy;
+
+    @Value("${app.consumer.commit.count:100}")
+    int commitCount;
+
+    @Value("${app.consumer.commit.interval:1s}")
+    java.time.Duration commitInterval;
+
+    // How long a send may block waiting for metadata before ingest falls back to OrderSpool
+    @Value("${app.producer.max-block:5s}")
+    java.time.Duration producerMaxBlock;
+
+    // Count-min sketch size and tracked keys of the send/listen hot-key detectors
+    @Value("${app.hotkeys.depth:4}")
+    int hotKeysDepth;
+
+    @Value("${app.hotkeys.width:2048}")
+    int hotKeysWidth;
+
+    @Value("${app.hotkeys.top-k:20}")
+    int hotKeysTopK;
+
+    // Keys spread over several partitions by SkewAwarePartitioner; auto-detect adds keys from sendHotKeys
+    @Value("${app.partitioner.hot-keys:}")
+    java.util.List<String> partitionerHotKeys;
+
+    @Value("${app.partitioner.auto-detect:false}")
+    boolean partitionerAutoDetect;
+
+    @Value("${app.partitioner.hot-share:0.2}")
+    double partitionerHotShare;
+
+    // 0 = all partitions of the topic
+    @Value("${app.partitioner.spread:0}")
+    int partitionerSpread;
+
     // ---------- Topics ----------
     @Bean NewTopic ordersTopic() { return TopicBuilder.name(ordersTopic).partitions(3).replicas(1).build(); }
+    // One consumer per partition at the default app.priority.concurrency; dead letters keep the source
+    // partition, so no more partitions than the DLQ has
+    @Bean NewTopic priorityTopic() { return TopicBuilder.name(priorityTopic).partitions(3).replicas(1).build(); }
     @Bean NewTopic dlqTopic()    { return TopicBuilder.name(dlqTopic).partitions(3).replicas(1).build(); }
+    // One record per orderId after compaction (OrderChangelog, LatestOrdersLoader)
+    @Bean NewTopic latestTopic() { return TopicBuilder.name(latestTopic).partitions(3).replicas(1).compact().build(); }
+
+    // ---------- Hot-key detectors (fixed memory), fed by HotKeyInterceptors on the ingest producers and the orders listener ----------
+    @Bean
+    public HotKeyDetector sendHotKeys() { return new HotKeyDetector(hotKeysDepth, hotKeysWidth, hotKeysTopK, 64); }
 
-    // ---------- Specific Avro producer (String key, OrderCreated value) ----------
     @Bean
+    public HotKeyDetector listenHotKeys() { return new HotKeyDetector(hotKeysDepth, hotKeysWidth, hotKeysTopK, 64); }
+
+    // ---------- Skew-aware partitioning of hot keys, shared by the order producers ----------
+    @Bean
+    public SkewAwarePartitioner.HotKeys partitionerHotKeys() {
+        return new SkewAwarePartitioner.HotKeys(partitionerHotKeys, partitionerAutoDetect ? sendHotKeys() : null,
+                partitionerHotShare, 1_000);
+    }
+
+    private void skewAwarePartitioning(Map<String, Object> props) {
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.PARTITIONER_CLASS_CONFIG, SkewAwarePartitioner.class);
+        props.put(SkewAwarePartitioner.HOT_KEYS_CONFIG, partitionerHotKeys());
+        props.put(SkewAwarePartitioner.SPREAD_CONFIG, partitionerSpread);
+    }
+
+    // ---------- Specific Avro producer (String key, OrderCreated value): changelog, tests ----------
+    @Bean @Primary
     public ProducerFactory<String, OrderCreated> orderCreatedProducerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put("schema.registry.url", schemaRegistryUrl);
-        props.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        return new DefaultKafkaProducerFactory<>(orderCreatedProducerProps());
     }
 
-    @Bean
+    @Bean @Primary
     public KafkaTemplate<String, OrderCreated> avroKafkaTemplate(
-            ProducerFactory<String, OrderCreated> orderCreatedProducerFactory) {
+            @Qualifier("orderCreatedProducerFactory") ProducerFactory<String, OrderCreated> orderCreatedProducerFactory) {
         return new KafkaTemplate<>(orderCreatedProducerFactory);
     }
 
+    // ---------- Ingest producer (OrderPublisher, reactive ingress): the only OrderCreated sends sendHotKeys counts ----------
+    @Bean
+    public ProducerFactory<String, OrderCreated> ingestProducerFactory() {
+        Map<String, Object> props = orderCreatedProducerProps();
+        // the detector counts first, so a key it promotes is sequenced from the next record on
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                HotKeyInterceptors.Send.class.getName() + "," + SkewAwarePartitioner.Sequencer.class.getName());
+        props.put(HotKeyInterceptors.DETECTOR_CONFIG, sendHotKeys());
+        skewAwarePartitioning(props);
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, OrderCreated> ingestKafkaTemplate(
+            @Qualifier("ingestProducerFactory") ProducerFactory<String, OrderCreated> ingestProducerFactory) {
+        return new KafkaTemplate<>(ingestProducerFactory);
+    }
+
+    private Map<String, Object> orderCreatedProducerProps() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put("schema.registry.url", schemaRegistryUrl);
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // Same wire format as KafkaAvroSerializer; schema id cached per topic, thread-local encode buffers
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, OrderCreatedSerializer.class);
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.MAX_BLOCK_MS_CONFIG, producerMaxBlock.toMillis());
+        return props;
+    }
+
     // ---------- Generic Avro producer (String key, Object value) ----------
     @Bean
     public ProducerFactory<String, Object> genericAvroProducerFactory() {
@@ -76,15 +186,49 @@ public class AvroKafkaTestConfig {
         return new KafkaTemplate<>(genericAvroProducerFactory);
     }
 
-    // ---------- DLQ producer (String key, Avro value) ----------
+    // ---------- Raw producer (String key, pre-framed Avro bytes) for application/avro pass-through ----------
+    @Bean
+    public ProducerFactory<String, byte[]> rawAvroProducerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
+                org.apache.kafka.common.serialization.ByteArraySerializer.class);
+        // the detector counts first, so a key it promotes is sequenced from the next record on
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                HotKeyInterceptors.Send.class.getName() + "," + SkewAwarePartitioner.Sequencer.class.getName());
+        props.put(HotKeyInterceptors.DETECTOR_CONFIG, sendHotKeys());
+        skewAwarePartitioning(props);
+        props.put(org.apache.kafka.clients.producer.ProducerConfig.MAX_BLOCK_MS_CONFIG, producerMaxBlock.toMillis());
+        return new DefaultKafkaProducerFactory<>(props);
+    }
+
+    @Bean
+    public KafkaTemplate<String, byte[]> rawAvroKafkaTemplate(ProducerFactory<String, byte[]> rawAvroProducerFactory) {
+        return new KafkaTemplate<>(rawAvroProducerFactory);
+    }
+
+    @Bean
+    AvroPassThrough avroPassThrough(OrderLanes orderLanes) {
+        var schemaIds = new OrderCreatedSerializer();
+        schemaIds.configure(Map.of("schema.registry.url", schemaRegistryUrl), false);
+        return new AvroPassThrough(schemaIds, orderLanes);
+    }
+
+    // ---------- DLQ producer (String key, Avro value, or the original bytes of a projected record) ----------
     @Bean
     public ProducerFactory<Object, Object> dltProducerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(org.apache.kafka.clients.producer.ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put("schema.registry.url", schemaRegistryUrl);
         props.put(org.apache.kafka.clients.producer.ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(org.apache.kafka.clients.producer.ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, KafkaAvroSerializer.class);
-        return new DefaultKafkaProducerFactory<>(props);
+        // most specific first: byte[] would also be assignable to Object
+        Map<Class<?>, org.apache.kafka.common.serialization.Serializer<?>> values = new LinkedHashMap<>();
+        values.put(byte[].class, new ByteArraySerializer());
+        values.put(Object.class, new KafkaAvroSerializer());
+        var factory = new DefaultKafkaProducerFactory<Object, Object>(props);
+        factory.setValueSerializer(new DelegatingByTypeSerializer(values, true));
+        return factory;
     }
 
     @Bean
@@ -92,40 +236,104 @@ public class AvroKafkaTestConfig {
         return new KafkaTemplate<>(dltProducerFactory);
     }
 
-    // ---------- Avro consumer (String key, OrderCreated value) ----------
-    @Bean
+    // ---------- Avro consumer (String key, OrderCreated value): priority lane, tests ----------
+    @Bean @Primary
     public ConsumerFactory<String, OrderCreated> avroConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(avroConsumerProps());
+    }
+
+    // ---------- Orders listener consumer: the only OrderCreated records listenHotKeys counts ----------
+    @Bean
+    public ConsumerFactory<String, OrderCreated> ordersConsumerFactory() {
+        Map<String, Object> props = avroConsumerProps();
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, HotKeyInterceptors.Receive.class.getName());
+        props.put(HotKeyInterceptors.DETECTOR_CONFIG, listenHotKeys());
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    private Map<String, Object> avroConsumerProps() {
         Map<String, Object> props = new HashMap<>();
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put("schema.registry.url", schemaRegistryUrl);
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, KafkaAvroDeserializer.class);
-        props.put("specific.avro.reader", true);
+        // Resolves v1 and v2 writers into the v2 class through a cached writer/reader resolver
+        props.put(org.apache.kafka.clients.consumer.ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderCreatedDeserializer.class);
+        props.put(OrderCreatedDeserializer.RESOLVER_CACHE_SIZE_CONFIG, resolverCacheSize);
+        props.put(OrderCreatedDeserializer.REUSE_RECORDS_CONFIG, reuseRecords);
+        if ("projection".equals(decodeMode)) {
+            props.put(OrderCreatedDeserializer.PROJECTION_FIELDS_CONFIG, String.join(",", TestApp.OrderService.DECODED_FIELDS));
+        }
         props.put(org.apache.kafka.clients.consumer.ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 
-    // ---------- Listener container factory using Avro consumer and error handler ----------
+    // ---------- Listener container factories using Avro consumers and error handler ----------
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, OrderCreated> kafkaListenerContainerFactory(
-            ConsumerFactory<String, OrderCreated> avroConsumerFactory,
-            CommonErrorHandler errorHandler) {
+            @Qualifier("ordersConsumerFactory") ConsumerFactory<String, OrderCreated> ordersConsumerFactory,
+            CommonErrorHandler errorHandler,
+            DbBackpressure dbBackpressure,
+            OrderSink orderSink) {
+        return listenerContainerFactory(ordersConsumerFactory, errorHandler, dbBackpressure, orderSink);
+    }
+
+    // The priority lane's traffic is not the orders stream the hot-key detector reports on
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderCreated> priorityListenerContainerFactory(
+            @Qualifier("avroConsumerFactory") ConsumerFactory<String, OrderCreated> avroConsumerFactory,
+            CommonErrorHandler errorHandler,
+            DbBackpressure dbBackpressure,
+            OrderSink orderSink) {
+        return listenerContainerFactory(avroConsumerFactory, errorHandler, dbBackpressure, orderSink);
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, OrderCreated> listenerContainerFactory(
+            ConsumerFactory<String, OrderCreated> consumerFactory, CommonErrorHandler errorHandler,
+            DbBackpressure dbBackpressure, OrderSink orderSink) {
         ConcurrentKafkaListenerContainerFactory<String, OrderCreated> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(avroConsumerFactory);
+        factory.setConsumerFactory(consumerFactory);
         factory.setCommonErrorHandler(errorHandler);
+        // this factory replaces Boot's, so spring.kafka.listener.ack-mode would not apply here
+        CommitPolicy.of(commitPolicy, commitCount, commitInterval).applyTo(factory.getContainerProperties());
+        if (orderSink.acksAsynchronously()) {
+            // the sink acks each record once its flush is durable; commits follow those acks, not the policy
+            if (reuseRecords) throw new IllegalStateException("app.avro.reuse-records cannot be combined with an asynchronous sink");
+            factory.getContainerProperties().setAckMode(org.springframework.kafka.listener.ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        }
+        // DbBackpressure pauses mid-poll; the rest of the batch is held until resume rather than written slowly
+        factory.getContainerProperties().setPauseImmediate(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(dbBackpressure);
         return factory;
     }
 
     // ---------- DLQ handler (bounded retries → DLQ) ----------
     @Bean
     public DeadLetterPublishingRecoverer dltRecoverer(@Qualifier("dltTemplate") KafkaTemplate<Object, Object> dltTemplate) {
-        return new DeadLetterPublishingRecoverer(dltTemplate, (rec, ex) -> new TopicPartition(dlqTopic, rec.partition()));
+        return new DeadLetterPublishingRecoverer(dltTemplate, (rec, ex) -> new TopicPartition(dlqTopic, rec.partition())) {
+            // a projected record cannot be re-encoded: publish the bytes it was decoded from, as for a
+            // deserialization failure
+            @Override
+            protected ProducerRecord<Object, Object> createProducerRecord(ConsumerRecord<?, ?> record, TopicPartition topicPartition,
+                                                                          Headers headers, byte[] key, byte[] value) {
+                byte[] original = OrderDeadLetters.takeOriginal(headers);
+                return super.createProducerRecord(record, topicPartition, headers, key, value == null ? original : value);
+            }
+        };
     }
 
     @Bean
     public CommonErrorHandler errorHandler(DeadLetterPublishingRecoverer dltRecoverer) {
         var handler = new org.springframework.kafka.listener.DefaultErrorHandler(dltRecoverer, new FixedBackOff(0L, 0L));
         handler.addNotRetryableExceptions(IllegalArgumentException.class);
+        // A DB outage is not the record's fault: keep redelivering it (the sink circuit pauses the container
+        // meanwhile) instead of running out of attempts and dead-lettering a healthy event. A failed after-store
+        // hook gets a few tries and then goes to the DLQ, so it cannot hold the partition forever
+        handler.setBackOffFunction((rec, ex) -> {
+            if (SinkUnavailableException.isCause(ex)) return new FixedBackOff(500L, FixedBackOff.UNLIMITED_ATTEMPTS);
+            if (AfterStoreException.isCause(ex)) return new FixedBackOff(500L, 3L);
+            return null;
+        });
         handler.setCommitRecovered(true);
         return handler;
     }
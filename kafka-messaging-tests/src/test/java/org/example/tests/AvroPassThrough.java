@@ -0,0 +1,37 @@
+package org.example.tests;
+
+import org.example.avro.v2.OrderCreated;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Turns a raw v2 {@link OrderCreated} Avro body into a Confluent-framed record value without decoding it:
+ * {@link AvroBinaryScanner} checks the structure and locates {@code customerId} (the record key) and
+ * {@code total} (the {@link OrderLanes} lane), then the body is copied once behind the magic byte and the
+ * schema id registered for that lane's topic.
+ */
+final class AvroPassThrough {
+
+    static final String MEDIA_TYPE = "application/avro";
+
+    record Framed(String topic, String key, byte[] value) {}
+
+    private final OrderCreatedSerializer schemaIds;
+    private final OrderLanes lanes;
+    private final AvroBinaryScanner scanner = new AvroBinaryScanner(OrderCreated.getClassSchema(), "customerId", "total");
+
+    AvroPassThrough(OrderCreatedSerializer schemaIds, OrderLanes lanes) { this.schemaIds = schemaIds; this.lanes = lanes; }
+
+    /** @return the routed, keyed, framed value, or null if the body is not a well-formed v2 OrderCreated */
+    Framed frame(byte[] body) {
+        int[] spans = new int[4];
+        if (!scanner.scan(body, 0, body.length, spans) || spans[1] == 0) return null;
+        String topic = lanes.topicFor(ByteBuffer.wrap(body, spans[2], spans[3]));
+        byte[] value = new byte[ConfluentWire.HEADER_SIZE + body.length];
+        System.arraycopy(ConfluentWire.header(schemaIds.schemaIdFor(topic)), 0, value, 0, ConfluentWire.HEADER_SIZE);
+        System.arraycopy(body, 0, value, ConfluentWire.HEADER_SIZE, body.length);
+        return new Framed(topic, new String(body, spans[0], spans[1], UTF_8), value);
+    }
+}
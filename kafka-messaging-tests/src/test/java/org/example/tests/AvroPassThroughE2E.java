@@ -0,0 +1,52 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AvroPassThroughE2E extends KafkaConfigTest {
+  @Autowired TestRestTemplate rest;
+  @Autowired JdbcTemplate jdbc;
+
+  private static HttpEntity<byte[]> avro(byte[] body) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.parseMediaType(AvroPassThrough.MEDIA_TYPE));
+    return new HttpEntity<>(body, headers);
+  }
+
+  @Test @AllureId("E2E-006")
+  void avroBody_isForwardedAsIs_andPersists() throws Exception {
+    byte[] body = AvroBinaryScannerIT.rawV2("ORD-AVRO-1", "C-avro", null);
+
+    var resp = rest.postForEntity("/api/orders", avro(body), Void.class);
+    assertThat(resp.getStatusCode().value()).isEqualTo(202);
+
+    org.awaitility.Awaitility.await().untilAsserted(() -> {
+      Integer cnt = jdbc.queryForObject("select count(*) from orders where order_id='ORD-AVRO-1'", Integer.class);
+      assertThat(cnt).isEqualTo(1);
+    });
+  }
+
+  @Test @AllureId("E2E-007")
+  void malformedAvroBody_isRejected() throws Exception {
+    byte[] body = AvroBinaryScannerIT.rawV2("ORD-AVRO-2", "C-avro", null);
+
+    var resp = rest.postForEntity("/api/orders", avro(Arrays.copyOf(body, body.length - 3)), Void.class);
+    assertThat(resp.getStatusCode().value()).isEqualTo(400);
+
+    // well-formed Avro, but a total no decimal(10,2) can hold
+    byte[] emptyTotal = AvroBinaryScannerIT.rawV2("ORD-AVRO-3", "C-avro", null, new byte[0]);
+    byte[] wideTotal = AvroBinaryScannerIT.rawV2("ORD-AVRO-4", "C-avro", null, new byte[] {0, 0, 0, 0, 0, 1});
+    assertThat(rest.postForEntity("/api/orders", avro(emptyTotal), Void.class).getStatusCode().value()).isEqualTo(400);
+    assertThat(rest.postForEntity("/api/orders", avro(wideTotal), Void.class).getStatusCode().value()).isEqualTo(400);
+  }
+}
@@ -0,0 +1,95 @@
+package org.example.tests;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.DatumReader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded LRU of datum readers keyed by (writer, reader) parsing-form fingerprints. A cached reader
+ * compiles its resolving grammar once per thread and keeps it, so mixed v1/v2 traffic pays for schema
+ * resolution once per pair rather than once per record.
+ * <p>
+ * Readers resolved for a registry schema id are also indexed by that id, in a second LRU of the same bound,
+ * so a deserializer can skip fetching and fingerprinting the writer schema for ids it has seen.
+ */
+public final class AvroResolverCache<D> {
+
+    record Key(long writerFingerprint, long readerFingerprint) {}
+
+    private final BiFunction<Schema, Schema, DatumReader<D>> compiler;
+    private final Map<Key, DatumReader<D>> readers;
+    private final Map<Integer, DatumReader<D>> byId;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public AvroResolverCache(int maxEntries, BiFunction<Schema, Schema, DatumReader<D>> compiler) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+        this.compiler = compiler;
+        this.readers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, DatumReader<D>> eldest) {
+                if (size() <= maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, DatumReader<D>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    static Key key(Schema writer, Schema reader) {
+        return new Key(SchemaNormalization.parsingFingerprint64(writer), SchemaNormalization.parsingFingerprint64(reader));
+    }
+
+    public DatumReader<D> get(Schema writer, Schema reader) {
+        return get(key(writer, reader), writer, reader);
+    }
+
+    /** For callers that already hold the fingerprints (e.g. per schema id) and want to skip re-hashing. */
+    DatumReader<D> get(Key key, Schema writer, Schema reader) {
+        synchronized (this) {
+            DatumReader<D> cached = readers.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        // Compile outside the lock; a racing thread may compile the same pair, last one wins.
+        DatumReader<D> compiled = compiler.apply(writer, reader);
+        synchronized (this) {
+            readers.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    /** The reader resolved for {@code schemaId}, or null if it is not cached. Ids are immutable, so it never goes stale. */
+    synchronized DatumReader<D> cached(int schemaId) {
+        DatumReader<D> cached = byId.get(schemaId);
+        if (cached != null) hits++;
+        return cached;
+    }
+
+    /** Like {@link #get(Schema, Schema)} for {@code writer} registered as {@code schemaId}, then indexed by that id. */
+    DatumReader<D> get(int schemaId, Schema writer, Schema reader) {
+        DatumReader<D> resolved = get(writer, reader);
+        synchronized (this) {
+            byId.put(schemaId, resolved);
+        }
+        return resolved;
+    }
+
+    public synchronized int size() { return readers.size(); }
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized long evictions() { return evictions; }
+}
@@ -0,0 +1,125 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@code OrderService} through a dedicated container whose JDBC calls go through
+ * {@link FaultInjectingDataSource}. {@code max.poll.interval.ms} is set well below the time one slow poll would
+ * take to write, so without backpressure the group would rebalance.
+ */
+public class BackpressureIT extends KafkaConfigTest {
+
+    private static final int MAX_POLL_RECORDS = 50;
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired @Qualifier("dltTemplate") KafkaTemplate<Object, Object> dltTemplate;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-007")
+    void slowDatabase_pausesWithoutRebalance_andInFlightStaysBounded() throws Exception {
+        String topic = "orders.backpressure";
+        int n = 300;
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) 1))).all().get();
+        }
+        produce(avroKafkaTemplate, topic, "ORD-BP", n);
+
+        var slow = new FaultInjectingDataSource(dataSource);
+        // one statement per order: a full poll of 50 would take 7.5s against a 5s max.poll.interval
+        slow.setDelay(Duration.ofMillis(150));
+
+        var containerRef = new AtomicReference<KafkaMessageListenerContainer<String, OrderCreated>>();
+        var gate = new ListenerGate(containerRef::get);
+        var thresholds = new DbBackpressure.Thresholds(Duration.ofMillis(50), Duration.ofMillis(15), 0.95, 0.5, Duration.ofMillis(100));
+        try (var backpressure = new DbBackpressure(gate, slow, thresholds);
+             var circuit = new SinkCircuitBreaker(gate, slow, 5, Duration.ofSeconds(5))) {
+            var service = new TestApp.OrderService(new DirectOrderSink(new JdbcTemplate(slow), backpressure, circuit),
+                    new OrderDeadLetters(dltTemplate, "orders.created.DLQ"), List.of());
+            var processed = new AtomicLong();
+            var maxInFlight = new AtomicLong();
+            FetchCounter.FETCHED.set(0);
+
+            var props = new ContainerProperties(topic);
+            props.setGroupId("backpressure");
+            props.setPauseImmediate(true);
+            props.setConsumerRebalanceListener(backpressure);
+            Properties consumer = new Properties();
+            consumer.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
+            consumer.put(ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, 5_000);
+            consumer.put(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, FetchCounter.class.getName());
+            props.setKafkaConsumerProperties(consumer);
+            props.setMessageListener((MessageListener<String, OrderCreated>) rec -> {
+                service.onOrder(rec);
+                long done = processed.incrementAndGet();
+                maxInFlight.accumulateAndGet(FetchCounter.FETCHED.get() - done, Math::max);
+            });
+            var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+            containerRef.set(container);
+            container.start();
+            try {
+                org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30)).until(backpressure::isPaused);
+
+                // probes still see 150ms, above the 15ms resume threshold: stays paused past max.poll.interval
+                org.awaitility.Awaitility.await().during(Duration.ofSeconds(8)).atMost(Duration.ofSeconds(10))
+                        .until(backpressure::isPaused);
+                assertThat(processed.get()).isLessThan(n);
+
+                slow.setDelay(Duration.ZERO);
+                org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(60)).untilAsserted(() ->
+                        assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-BP%'", Integer.class))
+                                .isEqualTo(n));
+
+                assertThat(backpressure.isPaused()).isFalse();
+                assertThat(gate.pauses()).isGreaterThanOrEqualTo(1);
+                assertThat(backpressure.revocations()).as("no rebalance while paused").isZero();
+                assertThat(maxInFlight.get()).as("fetched but unwritten records").isLessThanOrEqualTo(MAX_POLL_RECORDS);
+            } finally {
+                container.stop();
+            }
+        }
+    }
+
+    /** Counts records handed out by {@code poll()}, so fetched minus written is the in-memory backlog. */
+    public static class FetchCounter implements ConsumerInterceptor<Object, Object> {
+        static final AtomicLong FETCHED = new AtomicLong();
+
+        @Override
+        public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+            FETCHED.addAndGet(records.count());
+            return records;
+        }
+
+        @Override public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {}
+        @Override public void close() {}
+        @Override public void configure(Map<String, ?> configs) {}
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ingest while the broker is unreachable: orders are spooled locally, replayed once it is back and stored
+ * exactly once. The broker container is paused rather than stopped, so it comes back on the same mapped port.
+ */
+public class BrokerOutageE2E extends KafkaConfigTest {
+  @Autowired TestRestTemplate rest;
+  @Autowired JdbcTemplate jdbc;
+  @Autowired OrderPublisher orderPublisher;
+  @Autowired OrderSpool orderSpool;
+
+  @Test @AllureId("E2E-012")
+  void ordersIngestedDuringAnOutage_areSpooled_andStoredOnceWhenTheBrokerReturns() {
+    int n = 200;
+    long spooledBefore = orderPublisher.spooled();
+    var docker = kafka.getDockerClient();
+    docker.pauseContainerCmd(kafka.getContainerId()).exec();
+    try {
+      for (int i = 0; i < n; i++) {
+        // every fourth order is high-value and belongs on the priority lane
+        var body = Map.of("orderId", "ORD-SPL" + i, "customerId", "C-" + (i % 13), "total", i % 4 == 0 ? 1500 : 15);
+        var resp = rest.postForEntity(i % 2 == 0 ? "/api/orders" : "/api/orders/typed", body, Void.class);
+        assertThat(resp.getStatusCode().value()).isEqualTo(202);
+      }
+      org.awaitility.Awaitility.await().atMost(Duration.ofMinutes(1))
+          .until(() -> orderPublisher.spooled() - spooledBefore >= n);
+      assertThat(orderPublisher.isSpooling()).isTrue();
+      assertThat(orderSpool.pending()).isGreaterThanOrEqualTo(n);
+    } finally {
+      docker.unpauseContainerCmd(kafka.getContainerId()).exec();
+    }
+
+    org.awaitility.Awaitility.await().atMost(Duration.ofMinutes(3)).pollInterval(Duration.ofSeconds(1)).untilAsserted(() -> {
+      assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-SPL%'", Integer.class)).isEqualTo(n);
+      assertThat(orderSpool.isEmpty()).isTrue();
+    });
+    assertThat(orderPublisher.drained()).isGreaterThanOrEqualTo(n);
+    // timed-out sends may also have gone through once the broker was back: still one row per order
+    assertThat(jdbc.queryForObject("select count(distinct event_id) from orders where order_id like 'ORD-SPL%'", Integer.class)).isEqualTo(n);
+    assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-SPL%' and total = 1500", Integer.class))
+        .isEqualTo(n / 4);
+    org.awaitility.Awaitility.await().until(() -> !orderPublisher.isSpooling());
+  }
+}
@@ -0,0 +1,51 @@
+package org.example.tests;
+
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * When the orders listener commits offsets ({@code app.consumer.commit.*}). Everything after the last commit
+ * is redelivered after a crash, and the listener's upsert makes that redelivery harmless.
+ * <ul>
+ *   <li>{@code record}: commit after every record, the smallest replay window and the most commits</li>
+ *   <li>{@code count}: commit once {@code count} records are processed</li>
+ *   <li>{@code time}: commit at most once per {@code interval}</li>
+ *   <li>{@code hybrid}: whichever of count and interval comes first</li>
+ * </ul>
+ */
+record CommitPolicy(Mode mode, int count, Duration interval) {
+
+    enum Mode { RECORD, COUNT, TIME, HYBRID }
+
+    CommitPolicy {
+        if (count < 1) throw new IllegalArgumentException("commit count must be positive: " + count);
+        if (interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("commit interval must be positive: " + interval);
+    }
+
+    static CommitPolicy of(String mode, int count, Duration interval) {
+        return new CommitPolicy(Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)), count, interval);
+    }
+
+    void applyTo(ContainerProperties props) {
+        switch (mode) {
+            case RECORD -> props.setAckMode(ContainerProperties.AckMode.RECORD);
+            case COUNT -> props.setAckMode(ContainerProperties.AckMode.COUNT);
+            case TIME -> props.setAckMode(ContainerProperties.AckMode.TIME);
+            case HYBRID -> props.setAckMode(ContainerProperties.AckMode.COUNT_TIME);
+        }
+        props.setAckCount(count);
+        props.setAckTime(interval.toMillis());
+    }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case RECORD -> "record";
+            case COUNT -> "count(" + count + ")";
+            case TIME -> "time(" + interval.toMillis() + "ms)";
+            case HYBRID -> "hybrid(" + count + ", " + interval.toMillis() + "ms)";
+        };
+    }
+}
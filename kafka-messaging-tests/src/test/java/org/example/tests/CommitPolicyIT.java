@@ -0,0 +1,146 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link CommitPolicy} on dedicated containers, topics and groups that feed the real {@code OrderService}
+ * listener, so the app's own "orders" container and the shared topic are left alone.
+ */
+public class CommitPolicyIT extends KafkaConfigTest {
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired TestApp.OrderService orderService;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-005")
+    void uncommittedRecords_areRedeliveredAfterCrash_andUpsertKeepsOneRowEach() throws Exception {
+        String topic = "orders.commit-crash", group = "commit-crash";
+        int n = 300;
+        createTopic(topic);
+        produce(avroKafkaTemplate, topic, "ORD-CC", n);
+
+        // neither threshold is reached by n records, so everything consumed is uncommitted when we "crash"
+        var policy = new CommitPolicy(CommitPolicy.Mode.HYBRID, 1_000, Duration.ofHours(1));
+        var deliveries = new AtomicInteger();
+        var container = container(topic, group, policy, rec -> {
+            deliveries.incrementAndGet();
+            orderService.onOrder(rec);
+        }, new AtomicInteger());
+
+        org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30)).until(() -> deliveries.get() >= n);
+        Map<TopicPartition, OffsetAndMetadata> beforeCrash = committed(group);
+        assertThat(beforeCrash).isEmpty();
+
+        // A clean stop may commit pending acks; put the group back to the offsets a killed process would leave
+        container.stop();
+        try (Admin admin = admin()) {
+            var afterStop = committed(group);
+            if (!afterStop.isEmpty()) admin.deleteConsumerGroupOffsets(group, afterStop.keySet()).all().get();
+        }
+
+        container.start();
+        org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30)).until(() -> deliveries.get() >= 2 * n);
+        container.stop();
+
+        assertThat(deliveries.get()).as("whole uncommitted window is replayed").isEqualTo(2 * n);
+        assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-CC%'", Integer.class)).isEqualTo(n);
+        assertThat(jdbc.queryForObject("select sum(total) from orders where order_id like 'ORD-CC%'", BigDecimal.class))
+                .isEqualByComparingTo(expectedSum(n));
+    }
+
+    @Test @AllureId("IT-006")
+    void commitOverhead_vs_throughput_perPolicy() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        List<CommitPolicy> policies = List.of(
+                new CommitPolicy(CommitPolicy.Mode.RECORD, 1, Duration.ofSeconds(1)),
+                new CommitPolicy(CommitPolicy.Mode.COUNT, 500, Duration.ofSeconds(1)),
+                new CommitPolicy(CommitPolicy.Mode.TIME, 1, Duration.ofMillis(500)),
+                new CommitPolicy(CommitPolicy.Mode.HYBRID, 500, Duration.ofMillis(500)));
+
+        var report = new StringBuilder(String.format("%-22s %8s %10s %12s %8s%n", "policy", "records", "elapsed ms", "records/s", "commits"));
+        Map<CommitPolicy.Mode, Integer> commitsByMode = new HashMap<>();
+        for (int p = 0; p < policies.size(); p++) {
+            CommitPolicy policy = policies.get(p);
+            // own topic and key range per policy, so every run does real inserts rather than conflict no-ops
+            String topic = "orders.commit-bench." + p;
+            createTopic(topic);
+            produce(avroKafkaTemplate, topic, "ORD-CB" + p + "-", n);
+
+            var processed = new AtomicInteger();
+            var commits = new AtomicInteger();
+            long start = System.nanoTime();
+            var container = container(topic, "commit-bench-" + p, policy, rec -> {
+                orderService.onOrder(rec);
+                processed.incrementAndGet();
+            }, commits);
+            org.awaitility.Awaitility.await().atMost(Duration.ofMinutes(5)).until(() -> processed.get() >= n);
+            long elapsed = System.nanoTime() - start;
+            container.stop();
+
+            commitsByMode.put(policy.mode(), commits.get());
+            report.append(String.format("%-22s %8d %10d %12.0f %8d%n", policy, n, elapsed / 1_000_000,
+                    n / (elapsed / 1e9), commits.get()));
+        }
+
+        Allure.addAttachment("commit policies", "text/plain", report.toString());
+
+        assertThat(commitsByMode.get(CommitPolicy.Mode.RECORD)).isGreaterThanOrEqualTo(n);
+        assertThat(commitsByMode.get(CommitPolicy.Mode.COUNT)).isLessThan(n / 10);
+    }
+
+    private KafkaMessageListenerContainer<String, OrderCreated> container(String topic, String group, CommitPolicy policy,
+                                                                          MessageListener<String, OrderCreated> listener,
+                                                                          AtomicInteger commits) {
+        var props = new ContainerProperties(topic);
+        props.setGroupId(group);
+        props.setMessageListener(listener);
+        props.setCommitCallback((offsets, ex) -> commits.incrementAndGet());
+        policy.applyTo(props);
+        var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+        container.start();
+        return container;
+    }
+
+    private static BigDecimal expectedSum(int n) {
+        return BigDecimal.valueOf((long) n * (n - 1) / 2).add(new BigDecimal("0.25").multiply(BigDecimal.valueOf(n)));
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> committed(String group) throws Exception {
+        try (Admin admin = admin()) {
+            var offsets = new HashMap<>(admin.listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata().get());
+            offsets.values().removeIf(Objects::isNull);
+            return offsets;
+        }
+    }
+
+    private static void createTopic(String topic) throws Exception {
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) 1))).all().get();
+        }
+    }
+}
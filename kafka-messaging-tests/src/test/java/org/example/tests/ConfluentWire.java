@@ -0,0 +1,25 @@
+package org.example.tests;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Confluent wire format: magic byte {@code 0}, 4-byte big-endian schema id, then the Avro binary body.
+ */
+final class ConfluentWire {
+
+    static final byte MAGIC_BYTE = 0x0;
+    static final int HEADER_SIZE = 5;
+
+    private ConfluentWire() {}
+
+    static int schemaId(byte[] payload) {
+        if (payload.length < HEADER_SIZE || payload[0] != MAGIC_BYTE) {
+            throw new SerializationException("Unknown magic byte!");
+        }
+        return ((payload[1] & 0xff) << 24) | ((payload[2] & 0xff) << 16) | ((payload[3] & 0xff) << 8) | (payload[4] & 0xff);
+    }
+
+    static byte[] header(int schemaId) {
+        return new byte[] { MAGIC_BYTE, (byte) (schemaId >>> 24), (byte) (schemaId >>> 16), (byte) (schemaId >>> 8), (byte) schemaId };
+    }
+}
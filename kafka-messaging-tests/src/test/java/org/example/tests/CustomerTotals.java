@@ -0,0 +1,153 @@
+package org.example.tests;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.errors.LogAndContinueExceptionHandler;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Per-customer order count and spend, kept incrementally by a Kafka Streams topology over {@code orders.created}
+ * instead of aggregate SQL over {@code orders}. Active with {@code app.streams.enabled=true}.
+ * <p>
+ * Valid orders are re-keyed by {@code customerId} to {@code (customer, cents)}, so the repartition topic carries
+ * 8-byte values rather than Avro. The running totals live in a persistent RocksDB store, backed by a changelog
+ * topic. {@code GET /api/customers/{customerId}/totals} reads that store through interactive queries. With one
+ * instance every partition is local; a multi-instance deployment would also need to route queries by key.
+ * <p>
+ * Like the table, this counts every delivery: a redelivered order is added again unless the application runs
+ * with {@code processing.guarantee=exactly_once_v2} ({@code app.streams.processing-guarantee}).
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.streams.enabled", havingValue = "true")
+public class CustomerTotals {
+
+    static final String STORE = "customer-totals";
+
+    /** Running totals of one customer; {@code cents} is the sum of {@code total} at scale 2. */
+    record Total(long orders, long cents) {
+        static final Total ZERO = new Total(0, 0);
+
+        Total plus(long orderCents) { return new Total(orders + 1, cents + orderCents); }
+
+        BigDecimal amount() { return BigDecimal.valueOf(cents, 2); }
+    }
+
+    // fixed 16 bytes: orders, cents
+    static final Serde<Total> TOTAL_SERDE = Serdes.serdeFrom(
+            (topic, t) -> t == null ? null : ByteBuffer.allocate(16).putLong(t.orders()).putLong(t.cents()).array(),
+            (topic, bytes) -> {
+                if (bytes == null) return null;
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                return new Total(buf.getLong(), buf.getLong());
+            });
+
+    static Topology topology(String ordersTopic, Serde<OrderCreated> orders) {
+        var builder = new StreamsBuilder();
+        builder.stream(ordersTopic, Consumed.with(Serdes.String(), orders))
+                .filter((key, evt) -> evt != null && TestApp.OrderValidation.of(evt) == TestApp.OrderValidation.VALID)
+                .map((key, evt) -> KeyValue.pair(evt.getCustomerId().toString(), cents(evt.getTotal())))
+                .groupByKey(Grouped.with("by-customer", Serdes.String(), Serdes.Long()))
+                .aggregate(() -> Total.ZERO, (customer, orderCents, total) -> total.plus(orderCents),
+                        Materialized.<String, Total>as(Stores.persistentKeyValueStore(STORE))
+                                .withKeySerde(Serdes.String()).withValueSerde(TOTAL_SERDE));
+        return builder.build();
+    }
+
+    /** Same wire handling as the listener: mixed v1/v2 writers resolve into the v2 class. */
+    static Serde<OrderCreated> orderSerde(String schemaRegistryUrl) {
+        Serde<OrderCreated> serde = Serdes.serdeFrom(new OrderCreatedSerializer(), new OrderCreatedDeserializer());
+        serde.configure(Map.of("schema.registry.url", schemaRegistryUrl), false);
+        return serde;
+    }
+
+    // The decimal's two's-complement big-endian bytes as a long; precision 10 always fits
+    static long cents(ByteBuffer total) {
+        int pos = total.position(), end = total.limit();
+        if (pos == end) return 0;
+        long v = total.get(pos);
+        for (int i = pos + 1; i < end; i++) v = (v << 8) | (total.get(i) & 0xff);
+        return v;
+    }
+
+    static Total lookup(KafkaStreams streams, String customerId) {
+        ReadOnlyKeyValueStore<String, Total> store =
+                streams.store(StoreQueryParameters.fromNameAndType(STORE, QueryableStoreTypes.keyValueStore()));
+        return store.get(customerId);
+    }
+
+    /**
+     * A record that does not decode (not Avro, unknown schema id) is logged and skipped; the default handler would
+     * stop the stream thread on it, and every restart would fail on the same offset.
+     */
+    static Properties config(String applicationId, String bootstrapServers, String stateDir) {
+        var props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG, LogAndContinueExceptionHandler.class);
+        return props;
+    }
+
+    @Bean(destroyMethod = "close")
+    KafkaStreams customerTotalsStreams(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                                       @Value("${schema.registry.url}") String schemaRegistryUrl,
+                                       @Value("${app.topics.orders}") String ordersTopic,
+                                       @Value("${app.streams.application-id:orders-customer-totals}") String applicationId,
+                                       @Value("${app.streams.state-dir:${java.io.tmpdir}/kafka-streams}") String stateDir,
+                                       @Value("${app.streams.processing-guarantee:at_least_once}") String guarantee) {
+        var props = config(applicationId, bootstrapServers, stateDir);
+        props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, guarantee);
+        var streams = new KafkaStreams(topology(ordersTopic, orderSerde(schemaRegistryUrl)), props);
+        streams.start();
+        return streams;
+    }
+
+    @RestController
+    @ConditionalOnProperty(name = "app.streams.enabled", havingValue = "true")
+    static class Controller {
+        private final KafkaStreams streams;
+
+        Controller(@Qualifier("customerTotalsStreams") KafkaStreams customerTotalsStreams) { this.streams = customerTotalsStreams; }
+
+        @GetMapping("/api/customers/{customerId}/totals")
+        public ResponseEntity<?> totals(@PathVariable String customerId) {
+            Total total;
+            try {
+                total = lookup(streams, customerId);
+            } catch (InvalidStateStoreException e) {
+                // still restoring or rebalancing
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            if (total == null) return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(Map.of("customerId", customerId, "orders", total.orders(), "total", total.amount()));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per second through the {@link CustomerTotals} topology, including decode, the repartition hop and
+ * the RocksDB store, over 10k customers drawn Zipf(1.0). Runs inside {@link TopologyTestDriver}, so this is the
+ * single-thread processing ceiling without broker I/O.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=CustomerTotalsBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerTotalsBenchmark {
+
+    private static final String SCOPE = "bench-customer-totals";
+    private static final String TOPIC = "orders.created";
+
+    Serde<OrderCreated> serde;
+    TopologyTestDriver driver;
+    TestInputTopic<String, byte[]> input;
+    String[] keys;
+    byte[][] payloads;
+    int next;
+
+    @Setup
+    public void setup() throws Exception {
+        serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+        Path stateDir = Files.createTempDirectory("customer-totals-bench");
+        driver = new TopologyTestDriver(CustomerTotals.topology(TOPIC, serde), CustomerTotalsIT.driverProps(stateDir));
+        input = driver.createInputTopic(TOPIC, new StringSerializer(), new ByteArraySerializer());
+
+        var zipf = new ZipfSampler(10_000, 1.0, 7);
+        keys = new String[4096];
+        payloads = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "C-" + zipf.next();
+            payloads[i] = serde.serializer().serialize(TOPIC, CustomerTotalsIT.order("ORD-B" + i, keys[i], (i % 500) + ".25"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        driver.close();
+        serde.close();
+        MockSchemaRegistry.dropScope(SCOPE);
+    }
+
+    @Benchmark
+    public void pipeOrder() {
+        int i = next++ & (keys.length - 1);
+        input.pipeInput(keys[i], payloads[i]);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.qameta.allure.AllureId;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CustomerTotalsIT {
+
+    private static final String SCOPE = "customer-totals-it";
+    private static final String TOPIC = "orders.created";
+
+    @TempDir Path stateDir;
+
+    @AfterEach
+    void dropScope() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    static Properties driverProps(Path stateDir) {
+        return CustomerTotals.config("customer-totals-test", "dummy:9092", stateDir.toString());
+    }
+
+    static OrderCreated order(String orderId, String customerId, String total) {
+        return OrderCreated.newBuilder()
+                .setEventId("EVT-" + orderId).setOrderId(orderId).setCustomerId(customerId)
+                .setTotal(ByteBuffer.wrap(new BigDecimal(total).movePointRight(2).unscaledValue().toByteArray()))
+                .setTs(Instant.ofEpochMilli(1_700_000_000_000L)).build();
+    }
+
+    @Test @AllureId("IT-014")
+    void keepsPerCustomerTotals_acrossWriterVersions_andSkipsInvalidOrders() throws Exception {
+        Schema v1 = new Schema.Parser().parse(Files.readString(Path.of("src/test/avro/v1/OrderCreated.avsc")));
+        SchemaRegistryClient registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        int v1Id = registry.register(TOPIC + "-value", new AvroSchema(v1));
+
+        try (var serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+             var driver = new TopologyTestDriver(CustomerTotals.topology(TOPIC, serde), driverProps(stateDir))) {
+            TestInputTopic<String, byte[]> in = driver.createInputTopic(TOPIC, new StringSerializer(), new ByteArraySerializer());
+            var v2 = serde.serializer();
+
+            in.pipeInput("C-1", OrderCreatedDeserializerIT.framed(v1Id, v1, OrderCreatedDeserializerIT.order(v1, "ORD-1")));  // C-1, 12.34
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("ORD-2", "C-1", "100.00")));
+            in.pipeInput("C-2", v2.serialize(TOPIC, order("ORD-3", "C-2", "0.99")));
+            // keyed by something else: the topology groups by the event's customerId, not the record key
+            in.pipeInput("other", v2.serialize(TOPIC, order("ORD-4", "C-2", "5000.01")));
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("ORD-5", "C-1", "-1.00")));
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("", "C-1", "7.00")));
+
+            KeyValueStore<String, CustomerTotals.Total> store = driver.getKeyValueStore(CustomerTotals.STORE);
+            assertThat(driver.getStateStore(CustomerTotals.STORE).persistent()).isTrue();
+            assertThat(store.get("C-1")).isEqualTo(new CustomerTotals.Total(2, 11_234));
+            assertThat(store.get("C-2").orders()).isEqualTo(2);
+            assertThat(store.get("C-2").amount()).isEqualByComparingTo("5001.00");
+            assertThat(store.get("C-3")).isNull();
+        }
+    }
+
+    @Test @AllureId("IT-015")
+    void cents_decodesTheDecimalBytes_withoutBigDecimal() {
+        for (String total : new String[]{"0.00", "0.01", "1.28", "-1.28", "99999999.99", "-99999999.99", "327.68"}) {
+            var bytes = ByteBuffer.wrap(new BigDecimal(total).movePointRight(2).unscaledValue().toByteArray());
+            assertThat(CustomerTotals.cents(bytes)).as(total).isEqualTo(new BigDecimal(total).movePointRight(2).longValueExact());
+        }
+        // a slice of a larger buffer, as pooled deserializers hand out
+        var slice = ByteBuffer.wrap(new byte[]{9, 0x01, 0x00, 9}, 1, 2);
+        assertThat(CustomerTotals.cents(slice)).isEqualTo(256);
+        assertThat(CustomerTotals.TOTAL_SERDE.deserializer().deserialize(TOPIC,
+                CustomerTotals.TOTAL_SERDE.serializer().serialize(TOPIC, new CustomerTotals.Total(3, -42))))
+                .isEqualTo(new CustomerTotals.Total(3, -42));
+    }
+
+    @Test @AllureId("IT-037")
+    void undecodableRecord_isSkipped_andLaterOrdersStillCount() {
+        try (var serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+             var driver = new TopologyTestDriver(CustomerTotals.topology(TOPIC, serde), driverProps(stateDir))) {
+            TestInputTopic<String, byte[]> in = driver.createInputTopic(TOPIC, new StringSerializer(), new ByteArraySerializer());
+
+            in.pipeInput("C-1", serde.serializer().serialize(TOPIC, order("ORD-1", "C-1", "1.00")));
+            in.pipeInput("C-1", "not avro at all".getBytes(StandardCharsets.UTF_8));
+            in.pipeInput("C-1", new byte[]{0, 0, 0, 0x7f, 0x7f, 1, 2});   // wire header with an unknown schema id
+            in.pipeInput("C-1", serde.serializer().serialize(TOPIC, order("ORD-2", "C-1", "2.50")));
+
+            KeyValueStore<String, CustomerTotals.Total> store = driver.getKeyValueStore(CustomerTotals.STORE);
+            assertThat(store.get("C-1")).isEqualTo(new CustomerTotals.Total(2, 350));
+        }
+    }
+}
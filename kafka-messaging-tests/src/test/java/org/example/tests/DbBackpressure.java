@@ -0,0 +1,125 @@
+package org.example.tests;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pauses the orders listener when Postgres slows down and resumes it once it recovers.
+ * <p>
+ * Write latency is tracked as an EWMA of the listener's statements. Pool saturation is (active + waiting) /
+ * max connections of the Hikari pool. The gate closes when either crosses its pause threshold and opens only when
+ * both are back under the lower resume thresholds. While paused nothing is written, so a probe statement is timed
+ * every {@code probeInterval} to keep the average moving. Paired with {@code pauseImmediate}, the unprocessed part
+ * of the current poll is held back. In-flight records therefore stay bounded by {@code max.poll.records} and the
+ * poll loop keeps running.
+ * <p>
+ * Also the container's rebalance listener, so tests can assert that pausing never cost a rebalance.
+ */
+final class DbBackpressure implements ConsumerAwareRebalanceListener, AutoCloseable {
+
+    static final String REASON = "db-latency";
+    private static final double ALPHA = 0.3;
+
+    record Thresholds(Duration pauseLatency, Duration resumeLatency,
+                      double pauseUtilization, double resumeUtilization, Duration probeInterval) {
+        Thresholds {
+            if (resumeLatency.compareTo(pauseLatency) > 0 || resumeUtilization > pauseUtilization) {
+                throw new IllegalArgumentException("resume thresholds must not exceed pause thresholds");
+            }
+        }
+    }
+
+    private final ListenerGate gate;
+    private final JdbcTemplate probe;
+    private final HikariDataSource hikari;
+    private final Thresholds thresholds;
+    private final ScheduledExecutorService prober;
+    private final AtomicLong revocations = new AtomicLong();
+    private double latencyNanos = -1;
+
+    DbBackpressure(ListenerGate gate, DataSource dataSource, Thresholds thresholds) {
+        this.gate = gate;
+        this.probe = new JdbcTemplate(dataSource);
+        this.hikari = unwrapHikari(dataSource);
+        this.thresholds = thresholds;
+        this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-backpressure-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = thresholds.probeInterval().toNanos();
+        prober.scheduleWithFixedDelay(this::probeIfPaused, every, every, TimeUnit.NANOSECONDS);
+    }
+
+    /** Feed one write's duration, measured by the sink around its statements. */
+    void recordWrite(long nanos) {
+        double ewma;
+        synchronized (this) {
+            latencyNanos = latencyNanos < 0 ? nanos : latencyNanos + ALPHA * (nanos - latencyNanos);
+            ewma = latencyNanos;
+        }
+        double utilization = poolUtilization();
+        if (!gate.isClosed(REASON)) {
+            if (ewma > thresholds.pauseLatency().toNanos() || utilization >= thresholds.pauseUtilization()) gate.close(REASON);
+        } else if (ewma < thresholds.resumeLatency().toNanos() && utilization <= thresholds.resumeUtilization()) {
+            gate.open(REASON);
+        }
+    }
+
+    synchronized Duration latency() { return Duration.ofNanos((long) Math.max(latencyNanos, 0)); }
+
+    boolean isPaused() { return gate.isClosed(REASON); }
+
+    long revocations() { return revocations.get(); }
+
+    double poolUtilization() {
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) return 0;
+        return (pool.getActiveConnections() + pool.getThreadsAwaitingConnection()) / (double) hikari.getMaximumPoolSize();
+    }
+
+    private void probeIfPaused() {
+        if (!gate.isClosed(REASON)) return;
+        long start = System.nanoTime();
+        try {
+            probe.execute("SELECT 1");
+            recordWrite(System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            // an unreachable DB is the circuit breaker's call; stay paused and try again next tick
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) revocations.incrementAndGet();
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) revocations.incrementAndGet();
+    }
+
+    @Override
+    public void close() { prober.shutdownNow(); }
+
+    private static HikariDataSource unwrapHikari(DataSource ds) {
+        try {
+            return ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes each order on the listener thread; {@code app.sink.mode=direct}, the default. The after-store hooks are
+ * awaited for at most {@code afterStoreTimeout}, which must stay well below {@code max.poll.interval.ms}.
+ */
+final class DirectOrderSink implements OrderSink {
+
+    static final Duration DEFAULT_AFTER_STORE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final JdbcTemplate jdbc;
+    private final DbBackpressure backpressure;
+    private final SinkCircuitBreaker circuit;
+    private final long afterStoreNanos;
+
+    DirectOrderSink(JdbcTemplate jdbc, DbBackpressure backpressure, SinkCircuitBreaker circuit) {
+        this(jdbc, backpressure, circuit, DEFAULT_AFTER_STORE_TIMEOUT);
+    }
+
+    DirectOrderSink(JdbcTemplate jdbc, DbBackpressure backpressure, SinkCircuitBreaker circuit, Duration afterStoreTimeout) {
+        this.jdbc = jdbc;
+        this.backpressure = backpressure;
+        this.circuit = circuit;
+        this.afterStoreNanos = afterStoreTimeout.toNanos();
+    }
+
+    @Override
+    public void write(ConsumerRecord<String, OrderCreated> rec, OrderRow row, Acknowledgment ack, TestApp.OrderService.AfterStore stored) {
+        circuit.checkClosed();
+        long start = System.nanoTime();
+        int inserted;
+        try {
+            inserted = jdbc.update(OrdersSchema.UPSERT, row.args());
+        } catch (DataAccessException e) {
+            if (!SinkCircuitBreaker.isOutage(e)) throw e;
+            circuit.onFailure();
+            throw new SinkUnavailableException("orders sink unavailable", e);
+        }
+        circuit.onSuccess();
+        backpressure.recordWrite(System.nanoTime() - start);
+        OrderRow kept = inserted == 1 ? row : OrdersSchema.find(jdbc, row.orderId());
+        // the row is in; redelivery republishes the stored version, and the error handler gives up after a few tries
+        try {
+            stored.onStored(kept).get(afterStoreNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new AfterStoreException("after-store hook failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new AfterStoreException("after-store hook did not finish within " + Duration.ofNanos(afterStoreNanos), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AfterStoreException("interrupted waiting for the after-store hooks", e);
+        } catch (RuntimeException e) {
+            // a hook that threw instead of returning a failed future
+            throw new AfterStoreException("after-store hook failed", e);
+        }
+        if (ack != null) ack.acknowledge();
+    }
+}
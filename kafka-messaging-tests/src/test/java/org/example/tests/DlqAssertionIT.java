@@ -3,9 +3,11 @@ package org.example.tests;
 import io.qameta.allure.AllureId;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 
@@ -13,21 +15,37 @@ import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 public class DlqAssertionIT extends KafkaConfigTest {
 
     @Autowired KafkaTemplate<String, Object> genericAvroKafkaTemplate;
-    @Autowired org.springframework.kafka.core.ConsumerFactory<byte[], byte[]> bytesConsumerFactory;
+    @Autowired ConsumerFactory<byte[], byte[]> bytesConsumerFactory;
 
     private static ByteBuffer dec(BigDecimal v) {
         return ByteBuffer.wrap(v.movePointRight(2).unscaledValue().toByteArray());
     }
 
+    // Other suites dead-letter into orders.created.DLQ from the same broker, so a test cannot expect to be
+    // the only record there (getSingleRecord); it waits for the record with its own key.
+    static ConsumerRecord<byte[], byte[]> recordByKey(Consumer<byte[], byte[]> consumer, String key) {
+        var found = new AtomicReference<ConsumerRecord<byte[], byte[]>>();
+        await().atMost(Duration.ofSeconds(20)).until(() -> {
+            for (var r : KafkaTestUtils.getRecords(consumer, Duration.ofMillis(500))) {
+                if (key.equals(new String(r.key(), UTF_8))) found.set(r);
+            }
+            return found.get() != null;
+        });
+        return found.get();
+    }
+
     @Test @AllureId("IT-003")
     void invalidEvent_isReroutedToDLQ_withReasonHeader() throws Exception {
         // Load V2 schema
@@ -48,8 +66,7 @@ public class DlqAssertionIT extends KafkaConfigTest {
 
         try (var consumer = bytesConsumerFactory.createConsumer("dlq-group", "dlq-client")) {
             consumer.subscribe(List.of("orders.created.DLQ"));
-            ConsumerRecord<byte[], byte[]> rec =
-                    KafkaTestUtils.getSingleRecord(consumer, "orders.created.DLQ", java.time.Duration.ofSeconds(20));
+            ConsumerRecord<byte[], byte[]> rec = recordByKey(consumer, "C-9");
 
             assertThat(new String(rec.key(), UTF_8)).isEqualTo("C-9");
 
@@ -67,4 +84,30 @@ public class DlqAssertionIT extends KafkaConfigTest {
                     .contains("negative total");
         }
     }
+
+    @Test @AllureId("IT-004")
+    void missingOrderId_isRoutedDirectly_withoutErrorHandler() throws Exception {
+        Schema v2 = new Schema.Parser().parse(Files.readString(Path.of("src/test/avro/v2/OrderCreated.avsc")));
+        GenericData.Record bad = new GenericData.Record(v2);
+        bad.put("eventId", "EVT-no-id");
+        bad.put("orderId", "");
+        bad.put("customerId", "C-10");
+        bad.put("total", dec(new BigDecimal("5.00")));
+        bad.put("ts", Instant.now().toEpochMilli());
+        bad.put("promotionCode", null);
+
+        genericAvroKafkaTemplate.send("orders.created", "C-10", bad).join();
+
+        try (var consumer = bytesConsumerFactory.createConsumer("dlq-direct-group", "dlq-direct-client")) {
+            consumer.subscribe(List.of("orders.created.DLQ"));
+            var rec = recordByKey(consumer, "C-10");
+            assertThat(new String(rec.headers().lastHeader("kafka_dlt-exception-message").value(), UTF_8))
+                    .isEqualTo("validation: missing orderId");
+            assertThat(new String(rec.headers().lastHeader("kafka_dlt-original-topic").value(), UTF_8))
+                    .isEqualTo("orders.created");
+            // DeadLetterPublishingRecoverer would have added the exception class and stack trace
+            assertThat(rec.headers().lastHeader("kafka_dlt-exception-fqcn")).isNull();
+            assertThat(rec.headers().lastHeader("kafka_dlt-exception-stacktrace")).isNull();
+        }
+    }
 }
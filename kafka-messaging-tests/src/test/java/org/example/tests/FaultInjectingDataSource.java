@@ -0,0 +1,89 @@
+package org.example.tests;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process database fault simulator around the real pool.
+ * <ul>
+ *   <li>{@link #setDelay}: every {@code execute*} on statements from this DataSource sleeps first, with the
+ *       connection checked out, just as against a slow server</li>
+ *   <li>{@link #setUnavailable}: connections and statements fail with SQLState 08001, as if the server were gone</li>
+ * </ul>
+ */
+final class FaultInjectingDataSource extends DelegatingDataSource {
+
+    private volatile long delayNanos;
+    private volatile boolean unavailable;
+
+    FaultInjectingDataSource(DataSource target) {
+        super(target);
+    }
+
+    void setDelay(Duration delay) { this.delayNanos = delay.toNanos(); }
+
+    void setUnavailable(boolean unavailable) { this.unavailable = unavailable; }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkAvailable();
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkAvailable();
+        return wrap(super.getConnection(username, password));
+    }
+
+    private void checkAvailable() throws SQLException {
+        if (unavailable) throw new SQLTransientConnectionException("injected: database unreachable", "08001");
+    }
+
+    private Connection wrap(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result);
+                case "prepareStatement" -> statement(PreparedStatement.class, (PreparedStatement) result);
+                case "prepareCall" -> statement(CallableStatement.class, (CallableStatement) result);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, S target) {
+        return proxy(type, target, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                checkAvailable();
+                long delay = delayNanos;
+                if (delay > 0) LockSupport.parkNanos(delay);
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(FaultInjectingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
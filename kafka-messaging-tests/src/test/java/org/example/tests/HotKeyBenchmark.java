@@ -0,0 +1,66 @@
+package org.example.tests;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of {@link HotKeyDetector#record} over Zipf(1.0) keys, against an exact {@code HashMap}
+ * counter whose memory grows with every distinct key. {@code shared} runs four threads on one detector, as
+ * the producer interceptor sees concurrent HTTP requests.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=HotKeyBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotKeyBenchmark {
+
+    @State(Scope.Thread)
+    public static class Keys {
+        @Param({"1000", "1000000"})
+        int cardinality;
+
+        String[] keys;
+        int next;
+
+        @Setup
+        public void setup() {
+            var zipf = new ZipfSampler(cardinality, 1.0, 3);
+            keys = new String[1 << 16];
+            for (int i = 0; i < keys.length; i++) keys[i] = "C-" + zipf.next();
+        }
+
+        String next() { return keys[next++ & (keys.length - 1)]; }
+    }
+
+    @State(Scope.Thread)
+    public static class Local {
+        HotKeyDetector detector = new HotKeyDetector(4, 2048, 20, 64);
+        Map<String, long[]> exact = new HashMap<>();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        HotKeyDetector detector = new HotKeyDetector(4, 2048, 20, 64);
+    }
+
+    @Benchmark
+    public void sketch(Keys keys, Local local) {
+        local.detector.record(keys.next(), "orders.created", 0);
+    }
+
+    @Benchmark
+    public void exactHashMap(Keys keys, Local local) {
+        local.exact.computeIfAbsent(keys.next(), k -> new long[1])[0]++;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void shared(Keys keys, Shared shared) {
+        shared.detector.record(keys.next(), "orders.created", 0);
+    }
+}
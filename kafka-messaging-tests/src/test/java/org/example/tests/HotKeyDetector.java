@@ -0,0 +1,144 @@
+package org.example.tests;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Heaviest record keys and per-partition load in fixed memory: a count-min sketch of {@code depth x width}
+ * counters estimates each key's count (never under, over by at most about {@code e/width} of the total), and
+ * a candidate set of the {@code topK} highest estimates tracks the keys themselves. Memory is the same for ten
+ * keys as for ten million. Partition load is counted per topic, up to {@code maxPartitions} partitions each.
+ * <p>
+ * {@link #record} is lock-free for the common case: a key already among the candidates updates its estimate in
+ * place, and the lock is taken only when a new key's estimate beats the smallest candidate, which after warm-up
+ * is rare. Safe for concurrent callers; the snapshot is approximate while records are being counted.
+ */
+final class HotKeyDetector {
+
+    record HeavyKey(String key, long estimate, double share) {}
+
+    /**
+     * {@code partitions} holds each topic's count per partition. {@code skew} is the busiest partition's count over
+     * the mean of the partitions seen, for the most skewed topic.
+     */
+    record Snapshot(long total, List<HeavyKey> top, Map<String, long[]> partitions, double skew) {}
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray sketch;
+    private final int maxPartitions;
+    private final Map<String, AtomicLongArray> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong total = new AtomicLong();
+    private final int topK;
+    private final Map<String, AtomicLong> candidates;
+    private volatile long floor;   // smallest candidate estimate once the set is full, else 0; may lag behind
+
+    HotKeyDetector(int depth, int width, int topK, int maxPartitions) {
+        if (Integer.bitCount(width) != 1) throw new IllegalArgumentException("width must be a power of two: " + width);
+        this.depth = depth;
+        this.width = width;
+        this.sketch = new AtomicLongArray(depth * width);
+        this.maxPartitions = maxPartitions;
+        this.topK = topK;
+        this.candidates = new ConcurrentHashMap<>(topK * 2);
+    }
+
+    /** A negative {@code partition} is not counted; the send path learns it only on the ack. */
+    void record(String key, String topic, int partition) {
+        total.incrementAndGet();
+        recordPartition(topic, partition);
+        if (key == null) return;
+
+        // double hashing: row i uses h1 + i * h2
+        int h = key.hashCode() * 0x9E3779B9;
+        int h1 = h ^ (h >>> 16), h2 = (h >>> 15) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(i * width + ((h1 + i * h2) & (width - 1))));
+        }
+        if (estimate <= floor) return;
+        AtomicLong known = candidates.get(key);
+        if (known != null) known.accumulateAndGet(estimate, Math::max);
+        else offer(key, estimate);
+    }
+
+    void recordPartition(String topic, int partition) {
+        if (topic == null || partition < 0 || partition >= maxPartitions) return;
+        AtomicLongArray counts = partitions.get(topic);
+        if (counts == null) counts = partitions.computeIfAbsent(topic, t -> new AtomicLongArray(maxPartitions));
+        counts.incrementAndGet(partition);
+    }
+
+    void recordKey(String key) {
+        record(key, null, -1);
+    }
+
+    private synchronized void offer(String key, long estimate) {
+        AtomicLong known = candidates.get(key);
+        if (known != null) {
+            known.accumulateAndGet(estimate, Math::max);
+            return;
+        }
+        if (candidates.size() >= topK) {
+            String smallest = null;
+            long min = Long.MAX_VALUE;
+            for (var e : candidates.entrySet()) {
+                long v = e.getValue().get();
+                if (v < min) { min = v; smallest = e.getKey(); }
+            }
+            if (estimate <= min) {
+                floor = min;
+                return;
+            }
+            candidates.remove(smallest);
+        }
+        candidates.put(key, new AtomicLong(estimate));
+        long min = Long.MAX_VALUE;
+        for (AtomicLong v : candidates.values()) min = Math.min(min, v.get());
+        floor = candidates.size() < topK ? 0 : min;
+    }
+
+    synchronized Snapshot snapshot() {
+        long n = total.get();
+        List<HeavyKey> top = new ArrayList<>(candidates.size());
+        candidates.forEach((key, estimate) -> top.add(new HeavyKey(key, estimate.get(), n == 0 ? 0 : (double) estimate.get() / n)));
+        top.sort(Comparator.comparingLong(HeavyKey::estimate).reversed());
+
+        Map<String, long[]> perTopic = new TreeMap<>();
+        double skew = 0;
+        for (var e : partitions.entrySet()) {
+            AtomicLongArray counts = e.getValue();
+            int used = counts.length();
+            while (used > 0 && counts.get(used - 1) == 0) used--;
+            long[] perPartition = new long[used];
+            long max = 0, sum = 0;
+            for (int p = 0; p < used; p++) {
+                perPartition[p] = counts.get(p);
+                max = Math.max(max, perPartition[p]);
+                sum += perPartition[p];
+            }
+            perTopic.put(e.getKey(), perPartition);
+            if (sum > 0) skew = Math.max(skew, max / ((double) sum / used));
+        }
+        return new Snapshot(n, top, perTopic, skew);
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < sketch.length(); i++) sketch.set(i, 0);
+        partitions.clear();
+        total.set(0);
+        candidates.clear();
+        floor = 0;
+    }
+
+    /** Counter memory per topic seen, independent of how many distinct keys have been seen. */
+    long footprintBytes() {
+        return 8L * (sketch.length() + (long) maxPartitions * partitions.size()) + 64L * topK;
+    }
+}
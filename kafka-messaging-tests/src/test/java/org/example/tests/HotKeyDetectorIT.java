@@ -0,0 +1,69 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotKeyDetectorIT {
+
+    @Test @AllureId("IT-019")
+    void findsTheHeaviestKeys_neverUnderestimating() {
+        var detector = new HotKeyDetector(4, 2048, 20, 64);
+        var zipf = new ZipfSampler(100_000, 1.0, 11);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            String key = "C-" + zipf.next();
+            detector.record(key, "orders.created", Math.floorMod(key.hashCode(), 3));
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        var snapshot = detector.snapshot();
+        List<String> reported = snapshot.top().stream().map(HotKeyDetector.HeavyKey::key).toList();
+        List<String> trueTop5 = exact.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(5).map(Map.Entry::getKey).toList();
+        assertThat(reported).containsAll(trueTop5);
+        assertThat(reported.get(0)).isEqualTo("C-0");
+        for (var heavy : snapshot.top()) {
+            // count-min: an estimate is at least the true count, and within e/width of the total above it
+            assertThat(heavy.estimate()).isGreaterThanOrEqualTo(exact.get(heavy.key()))
+                    .isLessThanOrEqualTo(exact.get(heavy.key()) + (long) (Math.E / 2048 * snapshot.total()));
+        }
+        assertThat(snapshot.total()).isEqualTo(1_000_000);
+        assertThat(snapshot.partitions()).containsOnlyKeys("orders.created");
+        assertThat(snapshot.partitions().get("orders.created")).hasSize(3);
+    }
+
+    @Test @AllureId("IT-020")
+    void memoryIsFixed_andSkewShowsTheWhalePartition() {
+        var few = new HotKeyDetector(4, 2048, 20, 64);
+        var many = new HotKeyDetector(4, 2048, 20, 64);
+        for (int i = 0; i < 100_000; i++) {
+            few.record("C-" + (i % 10), "orders.created", i % 3);
+            many.record("C-" + i, "orders.created", i % 3);
+        }
+        assertThat(few.footprintBytes()).isEqualTo(many.footprintBytes());
+        assertThat(many.snapshot().skew()).isLessThan(1.01);
+
+        // one whale at 40% of the traffic, always on partition 1
+        var skewed = new HotKeyDetector(4, 2048, 20, 64);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 5 < 2) skewed.record("WHALE", "orders.created", 1);
+            else skewed.record("C-" + i, "orders.created", i % 3);
+        }
+        var snapshot = skewed.snapshot();
+        assertThat(snapshot.top().get(0).key()).isEqualTo("WHALE");
+        assertThat(snapshot.top().get(0).share()).isBetween(0.39, 0.42);
+        long[] partitions = snapshot.partitions().get("orders.created");
+        assertThat(partitions[1]).isGreaterThan(2 * partitions[0]);
+        assertThat(snapshot.skew()).isGreaterThan(1.5);
+
+        skewed.reset();
+        assertThat(skewed.snapshot().total()).isZero();
+        assertThat(skewed.snapshot().top()).isEmpty();
+    }
+}
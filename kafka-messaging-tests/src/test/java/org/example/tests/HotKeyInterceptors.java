@@ -0,0 +1,71 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Feed a {@link HotKeyDetector} from a client's {@code interceptor.classes}. The detector instance is passed in
+ * the client config under {@link #DETECTOR_CONFIG}, since Kafka instantiates the interceptors itself.
+ * <p>
+ * On the send path the key is counted in {@code onSend}, before partitioning, and the topic and partition on the
+ * ack. Failed sends count their key but no partition. Only the ingest producers and the {@code orders} listener
+ * carry these interceptors, so other traffic on the same topics (the changelog, tests) is not counted.
+ */
+final class HotKeyInterceptors {
+
+    static final String DETECTOR_CONFIG = "orders.hotkeys.detector";
+
+    private HotKeyInterceptors() {}
+
+    private static HotKeyDetector detector(Map<String, ?> configs) {
+        Object detector = configs.get(DETECTOR_CONFIG);
+        if (!(detector instanceof HotKeyDetector d)) {
+            throw new IllegalStateException(DETECTOR_CONFIG + " must hold a HotKeyDetector, got " + detector);
+        }
+        return d;
+    }
+
+    public static class Send implements ProducerInterceptor<Object, Object> {
+        private HotKeyDetector detector;
+
+        @Override public void configure(Map<String, ?> configs) { detector = detector(configs); }
+
+        @Override
+        public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+            detector.recordKey(record.key() == null ? null : record.key().toString());
+            return record;
+        }
+
+        @Override
+        public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
+            if (exception == null && metadata != null) detector.recordPartition(metadata.topic(), metadata.partition());
+        }
+
+        @Override public void close() {}
+    }
+
+    public static class Receive implements ConsumerInterceptor<Object, Object> {
+        private HotKeyDetector detector;
+
+        @Override public void configure(Map<String, ?> configs) { detector = detector(configs); }
+
+        @Override
+        public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+            for (ConsumerRecord<Object, Object> rec : records) {
+                detector.record(rec.key() == null ? null : rec.key().toString(), rec.topic(), rec.partition());
+            }
+            return records;
+        }
+
+        @Override public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {}
+        @Override public void close() {}
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotKeysE2E extends KafkaConfigTest {
+  @Autowired TestRestTemplate rest;
+  @Autowired @Qualifier("sendHotKeys") HotKeyDetector sendHotKeys;
+  @Autowired @Qualifier("listenHotKeys") HotKeyDetector listenHotKeys;
+
+  @Test @AllureId("E2E-010")
+  @SuppressWarnings("unchecked")
+  void whaleCustomer_isTheHeaviestKey_onBothPaths() {
+    sendHotKeys.reset();
+    listenHotKeys.reset();
+    for (int i = 0; i < 300; i++) {
+      String customer = i % 3 == 0 ? "C-HK" + i : "C-WHALE";
+      var resp = rest.postForEntity("/api/orders", Map.of("orderId", "ORD-HK" + i, "customerId", customer, "total", 5), Void.class);
+      assertThat(resp.getStatusCode().value()).isEqualTo(202);
+    }
+
+    org.awaitility.Awaitility.await().untilAsserted(() -> {
+      assertThat(sendHotKeys.snapshot().top().get(0).key()).isEqualTo("C-WHALE");
+      assertThat(listenHotKeys.snapshot().top().get(0).key()).isEqualTo("C-WHALE");
+      assertThat(listenHotKeys.snapshot().top().get(0).estimate()).isGreaterThanOrEqualTo(200);
+    });
+
+    Map<String, Map<String, Object>> body = rest.getForObject("/api/hot-keys", Map.class);
+    var send = body.get("send");
+    assertThat(((List<Map<String, Object>>) send.get("top")).get(0)).containsEntry("key", "C-WHALE");
+    assertThat(((Number) send.get("skew")).doubleValue()).isGreaterThan(1.5);
+  }
+}
@@ -0,0 +1,112 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop HTTP load for the ingress E2E comparisons: {@code concurrency} workers POST the bodies
+ * back to back and record per-request latency. The report is attached to Allure.
+ */
+final class HttpLoadDriver {
+
+    // Tomcat request workers and Reactor Netty event loops; client, Kafka and test threads are not counted
+    private static final List<String> SERVER_THREAD_PREFIXES = List.of("http-nio-", "reactor-http-");
+    private static final long SAMPLE_INTERVAL_MS = 20;
+
+    /** {@code peakThreads} is the most server request threads seen alive at once during the run. */
+    record Report(String name, int requests, int errors, long elapsedNanos, long p50Micros, long p99Micros,
+                  long p999Micros, int peakThreads) {
+
+        double throughputPerSec() { return requests * 1e9 / elapsedNanos; }
+
+        String summary() {
+            return String.format("%s: %d req, %d errors, %.0f req/s, p50=%dus p99=%dus p99.9=%dus, peak server threads=%d",
+                    name, requests, errors, throughputPerSec(), p50Micros, p99Micros, p999Micros, peakThreads);
+        }
+    }
+
+    private HttpLoadDriver() {}
+
+    static Report run(String name, URI uri, String contentType, List<byte[]> bodies, int concurrency) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long[] latencies = new long[bodies.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger peakThreads = new AtomicInteger(serverThreads());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakThreads.accumulateAndGet(serverThreads(), Math::max),
+                SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        try {
+            Future<?>[] running = new Future<?>[concurrency];
+            for (int w = 0; w < concurrency; w++) {
+                running[w] = workers.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < latencies.length) {
+                        HttpRequest req = HttpRequest.newBuilder(uri).header("Content-Type", contentType)
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(bodies.get(i))).build();
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = client.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status / 100 != 2) errors.incrementAndGet();
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> f : running) f.get();
+        } finally {
+            workers.shutdownNow();
+            sampler.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        Report report = new Report(name, latencies.length, errors.get(), elapsed,
+                percentileMicros(latencies, 0.50), percentileMicros(latencies, 0.99), percentileMicros(latencies, 0.999),
+                peakThreads.get());
+        Allure.addAttachment("load: " + name, "text/plain", report.summary());
+        return report;
+    }
+
+    private static int serverThreads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int count = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null) continue;   // ended since the ids were read
+            for (String prefix : SERVER_THREAD_PREFIXES) {
+                if (info.getThreadName().startsWith(prefix)) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    static long percentileMicros(long[] sortedNanos, double p) {
+        if (sortedNanos.length == 0) return 0;
+        int idx = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(idx, 0)] / 1_000;
+    }
+}
@@ -1,13 +1,27 @@
 package org.example.tests;
 
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.example.avro.v2.OrderCreated;
 import org.junit.jupiter.api.BeforeAll;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.utility.DockerImageName;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public abstract class KafkaConfigTest {
 
@@ -34,6 +48,9 @@ public abstract class KafkaConfigTest {
         r.add("app.topics.orders", () -> "orders.created");
         r.add("app.topics.dlq", () -> "orders.created.DLQ");
 
+        // One spool directory per application context; contexts with different properties run side by side
+        r.add("app.spool.dir", () -> System.getProperty("java.io.tmpdir") + "/orders-spool-" + java.util.UUID.randomUUID());
+
         // Wire up PostgreSQL container to Spring Datasource auto-config
         r.add("spring.datasource.url", pg::getJdbcUrl);
         r.add("spring.datasource.username", pg::getUsername);
@@ -41,4 +58,31 @@ public abstract class KafkaConfigTest {
         r.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
     }
 
+    static Admin admin() {
+        return Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers()));
+    }
+
+    /** Latest offset of every partition of {@code topic}, indexed by partition. */
+    static long[] endOffsets(String topic) throws Exception {
+        try (Admin admin = admin()) {
+            int partitions = admin.describeTopics(List.of(topic)).allTopicNames().get().get(topic).partitions().size();
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            for (int p = 0; p < partitions; p++) latest.put(new TopicPartition(topic, p), OffsetSpec.latest());
+            var offsets = admin.listOffsets(latest).all().get();
+            return IntStream.range(0, partitions).mapToLong(p -> offsets.get(new TopicPartition(topic, p)).offset()).toArray();
+        }
+    }
+
+    /**
+     * Sends orders {@code <prefix>0 .. <prefix>(n-1)} to {@code topic} and waits for every ack. Order {@code i} is
+     * from customer {@code C-<i % 17>}, its key, and totals {@code i.25}.
+     */
+    static void produce(KafkaTemplate<String, OrderCreated> kafka, String topic, String prefix, int n) {
+        var sends = new ArrayList<CompletableFuture<?>>(n);
+        for (int i = 0; i < n; i++) {
+            String customerId = "C-" + (i % 17);
+            sends.add(kafka.send(topic, customerId, OrderFixtures.order(prefix + i, customerId, 100L * i + 25, Instant.now())));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+    }
 }
@@ -0,0 +1,103 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Consumer side of {@link SkewAwarePartitioner}: restores the send order of a hot key whose records were spread
+ * over several partitions, using their {@link SkewAwarePartitioner#SEQUENCE_HEADER}. Records without the header
+ * are released as they come.
+ * <p>
+ * A sequenced record is held until every earlier sequence of its key (and producer epoch) has been released. A
+ * gap that never fills, such as a consumer starting mid-stream, is given up once {@code maxPending} records of
+ * that key are held: the held records are released from the lowest sequence on. Must see every partition the
+ * hot keys are spread over; calls are synchronized so several listener threads can share one instance.
+ * <p>
+ * Each producer epoch of a key is a lane. Once more than {@code maxLanes} exist, the least recently used lanes
+ * that hold nothing are dropped: those are the epochs of producers that have stopped sending, as a live epoch
+ * is used on every record of its key.
+ * <p>
+ * The application's listener does not use this: {@code OrderService} stores each order on its own, keyed by
+ * {@code orderId}, so a spread hot key's orders are written in consumption order, not send order. Holding records
+ * back would also need acks that can run behind the listener. {@code SkewAwarePartitionerIT} shows the order can
+ * be restored on a consumer that needs it.
+ */
+final class KeyResequencer<K, V> {
+
+    private record Lane(Object key, long epoch) {}
+
+    private static final class Pending<K, V> {
+        long next;
+        final TreeMap<Long, ConsumerRecord<K, V>> held = new TreeMap<>();
+    }
+
+    private static final int DEFAULT_MAX_LANES = 1024;
+
+    private final int maxPending;
+    private final int maxLanes;
+    // access order, so the eldest lanes are the ones of epochs that stopped sending
+    private final LinkedHashMap<Lane, Pending<K, V>> lanes = new LinkedHashMap<>(16, 0.75f, true);
+
+    KeyResequencer(int maxPending) {
+        this(maxPending, DEFAULT_MAX_LANES);
+    }
+
+    KeyResequencer(int maxPending, int maxLanes) {
+        if (maxPending <= 0 || maxLanes <= 0) throw new IllegalArgumentException("maxPending and maxLanes must be > 0");
+        this.maxPending = maxPending;
+        this.maxLanes = maxLanes;
+    }
+
+    /** The records that are now in order, possibly none; {@code rec} itself may be held. */
+    synchronized List<ConsumerRecord<K, V>> accept(ConsumerRecord<K, V> rec) {
+        Header header = rec.headers().lastHeader(SkewAwarePartitioner.SEQUENCE_HEADER);
+        if (header == null) return List.of(rec);
+        ByteBuffer b = ByteBuffer.wrap(header.value());
+        long epoch = b.getLong(), seq = b.getLong();
+
+        Pending<K, V> lane = lanes.computeIfAbsent(new Lane(rec.key(), epoch), l -> new Pending<>());
+        if (seq < lane.next) return List.of(rec);   // a redelivery of a record already released
+        lane.held.put(seq, rec);
+
+        List<ConsumerRecord<K, V>> ready = new ArrayList<>();
+        release(lane, ready);
+        if (lane.held.size() > maxPending) {
+            lane.next = lane.held.firstKey();
+            release(lane, ready);
+        }
+        if (lanes.size() > maxLanes) dropIdleLanes();
+        return ready;
+    }
+
+    /** Records held back behind a gap, across all keys. */
+    synchronized int pending() {
+        return lanes.values().stream().mapToInt(l -> l.held.size()).sum();
+    }
+
+    /** Lanes currently tracked, drained or not. */
+    synchronized int lanes() {
+        return lanes.size();
+    }
+
+    // A record of a dropped lane that comes back later, e.g. a redelivery, is held as if after a gap
+    private void dropIdleLanes() {
+        Iterator<Pending<K, V>> eldestFirst = lanes.values().iterator();
+        while (lanes.size() > maxLanes && eldestFirst.hasNext()) {
+            if (eldestFirst.next().held.isEmpty()) eldestFirst.remove();
+        }
+    }
+
+    private void release(Pending<K, V> lane, List<ConsumerRecord<K, V>> ready) {
+        while (!lane.held.isEmpty() && lane.held.firstKey() == lane.next) {
+            ready.add(lane.held.pollFirstEntry().getValue());
+            lane.next++;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.example.tests.OrderFixtures.order;
+
+/**
+ * Warm-up from the compacted latest-order changelog vs. a full replay of the history it was built from. The
+ * history carries every order several times, as upstream retries and redeliveries leave it.
+ */
+public class LatestOrdersIT extends KafkaConfigTest {
+
+    private static final String HISTORY = "orders.latest-bench.history";
+    private static final String LATEST = "orders.latest-bench.latest";
+    private static final int DELIVERIES = 5;
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired OrderDeadLetters orderDeadLetters;
+    @Autowired DbBackpressure dbBackpressure;
+    @Autowired SinkCircuitBreaker ordersCircuit;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired CommonErrorHandler errorHandler;
+    @Autowired ConsumerFactory<byte[], byte[]> bytesConsumerFactory;
+
+    @Test @AllureId("IT-018")
+    void warmUpFromChangelog_matchesFullReplay_readingFewerRecords() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(
+                    new NewTopic(HISTORY, 3, (short) 1),
+                    // small segments and an eager cleaner, so compaction happens within the test
+                    new NewTopic(LATEST, 3, (short) 1).configs(Map.of(
+                            TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT,
+                            TopicConfig.SEGMENT_MS_CONFIG, "100",
+                            TopicConfig.MIN_CLEANABLE_DIRTY_RATIO_CONFIG, "0.01",
+                            TopicConfig.DELETE_RETENTION_MS_CONFIG, "100")))).all().get();
+        }
+        produceHistory(n);
+
+        // the consumer path maintains the changelog as it stores orders
+        var props = new ContainerProperties(HISTORY);
+        props.setGroupId(HISTORY + "-group");
+        var service = new TestApp.OrderService(new DirectOrderSink(jdbc, dbBackpressure, ordersCircuit), orderDeadLetters,
+                List.of(new OrderChangelog(avroKafkaTemplate, LATEST)));
+        props.setMessageListener((MessageListener<String, OrderCreated>) service::onOrder);
+        var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+        container.start();
+        try {
+            await().atMost(Duration.ofMinutes(5)).pollInterval(Duration.ofMillis(200))
+                    .until(() -> Arrays.stream(endOffsets(LATEST)).sum() == (long) n * DELIVERIES);
+        } finally {
+            container.stop();
+        }
+        assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-LT%'", Integer.class)).isEqualTo(n);
+
+        // roll the active segments (only closed segments are compacted), then wait for the cleaner
+        Thread.sleep(200);
+        for (int p = 0; p < 3; p++) avroKafkaTemplate.send(LATEST, p, "roll-" + p, null).join();
+        Map<String, Object> consumerProps = avroConsumerFactory.getConfigurationProperties();
+        await().atMost(Duration.ofMinutes(3)).pollInterval(Duration.ofSeconds(5))
+                .until(() -> LatestOrdersLoader.load(consumerProps, LATEST, 3).records() < (long) n * DELIVERIES / 2);
+
+        var replay = LatestOrdersLoader.load(consumerProps, HISTORY, 3);
+        var warmSerial = LatestOrdersLoader.load(consumerProps, LATEST, 1);
+        var warm = LatestOrdersLoader.load(consumerProps, LATEST, 3);
+
+        String report = String.format("%-26s %9s %8s %10s%n", "source", "records", "orders", "elapsed ms")
+                + row("full replay (3 threads)", replay)
+                + row("changelog (1 thread)", warmSerial)
+                + row("changelog (3 threads)", warm);
+        Allure.addAttachment("order state warm-up", "text/plain", report);
+
+        assertThat(warm.orders()).hasSize(n).isEqualTo(replay.orders());
+        assertThat(warm.records()).isLessThan(replay.records());
+    }
+
+    @Test @AllureId("IT-032")
+    void secondPayloadForAnOrder_changelogKeepsTheStoredVersion() throws Exception {
+        String history = "orders.latest-conflict.history", latest = "orders.latest-conflict.latest";
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(history, 3, (short) 1), new NewTopic(latest, 3, (short) 1))).all().get();
+        }
+        // the same order twice with different payloads, e.g. an upstream bug or a replayed older version
+        var first = new OrderCreated("EVT-ORD-LC1-A", "ORD-LC1", "C-1",
+                ByteBuffer.wrap(BigInteger.valueOf(2_500).toByteArray()), Instant.ofEpochMilli(1_700_000_000_000L), null);
+        var second = new OrderCreated("EVT-ORD-LC1-B", "ORD-LC1", "C-2",
+                ByteBuffer.wrap(BigInteger.valueOf(9_900).toByteArray()), Instant.ofEpochMilli(1_700_000_001_000L), "PROMO-1");
+        avroKafkaTemplate.send(history, "C-1", first).join();
+        avroKafkaTemplate.send(history, "C-1", second).join();
+
+        var props = new ContainerProperties(history);
+        props.setGroupId(history + "-group");
+        var service = new TestApp.OrderService(new DirectOrderSink(jdbc, dbBackpressure, ordersCircuit), orderDeadLetters,
+                List.of(new OrderChangelog(avroKafkaTemplate, latest)));
+        props.setMessageListener((MessageListener<String, OrderCreated>) service::onOrder);
+        var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+        container.start();
+        try {
+            await().atMost(Duration.ofMinutes(1)).until(() -> Arrays.stream(endOffsets(latest)).sum() == 2);
+        } finally {
+            container.stop();
+        }
+
+        // first write wins in the table; the changelog, last write wins, must agree with it
+        OrderRow stored = OrdersSchema.find(jdbc, "ORD-LC1");
+        assertThat(stored.eventId()).isEqualTo("EVT-ORD-LC1-A");
+        var warm = LatestOrdersLoader.load(avroConsumerFactory.getConfigurationProperties(), latest, 3);
+        assertThat(warm.records()).isEqualTo(2);
+        assertThat(warm.orders()).containsOnlyKeys("ORD-LC1").containsEntry("ORD-LC1", stored);
+    }
+
+    @Test @AllureId("IT-036")
+    void changelogSendFails_orderIsDeadLettered_andConsumptionMovesOn() throws Exception {
+        String history = "orders.latest-failing.history";
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(history, 3, (short) 1))).all().get();
+        }
+        // same partition, so the second order is only reached once the first has been given up on
+        avroKafkaTemplate.send(history, 0, "C-AS1", order("ORD-AS1", "C-AS1")).join();
+        avroKafkaTemplate.send(history, 0, "C-AS2", order("ORD-AS2", "C-AS2")).join();
+
+        var props = new ContainerProperties(history);
+        props.setGroupId(history + "-group");
+        // not a legal topic name: every changelog send fails
+        var service = new TestApp.OrderService(new DirectOrderSink(jdbc, dbBackpressure, ordersCircuit), orderDeadLetters,
+                List.of(new OrderChangelog(avroKafkaTemplate, "orders latest?")));
+        props.setMessageListener((MessageListener<String, OrderCreated>) service::onOrder);
+        var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+        container.setCommonErrorHandler(errorHandler);
+        container.start();
+        try (var consumer = bytesConsumerFactory.createConsumer("after-store-dlq-group", "after-store-dlq-client")) {
+            consumer.subscribe(List.of("orders.created.DLQ"));
+            for (String key : List.of("C-AS1", "C-AS2")) {
+                var rec = DlqAssertionIT.recordByKey(consumer, key);
+                assertThat(new String(rec.headers().lastHeader("kafka_dlt-exception-stacktrace").value(), UTF_8))
+                        .contains(AfterStoreException.class.getName());
+            }
+            try (Admin admin = admin()) {
+                await().atMost(Duration.ofSeconds(20)).until(() -> admin.listConsumerGroupOffsets(history + "-group")
+                        .partitionsToOffsetAndMetadata().get().values().stream().mapToLong(o -> o.offset()).sum() == 2);
+            }
+        } finally {
+            container.stop();
+        }
+        // the rows were stored before the hook failed
+        assertThat(OrdersSchema.find(jdbc, "ORD-AS1")).isNotNull();
+        assertThat(OrdersSchema.find(jdbc, "ORD-AS2")).isNotNull();
+    }
+
+    private static String row(String name, LatestOrdersLoader.Result r) {
+        return String.format("%-26s %9d %8d %10d%n", name, r.records(), r.orders().size(), r.elapsedNanos() / 1_000_000);
+    }
+
+    // every order DELIVERIES times, the copies spread through the history; keyed by orderId like the changelog, so
+    // the loader can replay it
+    private void produceHistory(int n) {
+        var sends = new ArrayList<CompletableFuture<?>>(n * DELIVERIES);
+        for (int d = 0; d < DELIVERIES; d++) {
+            for (int i = 0; i < n; i++) {
+                var evt = order("ORD-LT" + i, "C-" + (i % 17), 100L * i + 25, OrderFixtures.TS.plusMillis(i));
+                sends.add(avroKafkaTemplate.send(HISTORY, "ORD-LT" + i, evt));
+            }
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.example.avro.v2.OrderCreated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds order state in memory by reading a topic from the beginning to the end offsets seen at start.
+ * Partitions are split across {@code threads} workers, each with its own consumer and no group, so nothing is
+ * committed and no rebalance is involved.
+ * <p>
+ * The state is keyed by the record key, which must be the {@code orderId}, as {@link OrderChangelog} writes it.
+ * A later record for the same key replaces the earlier one, and a tombstone removes it. Pointed at the compacted
+ * {@code orders.latest} topic this reads about one record per order; pointed at a history keyed the same way it is
+ * a full replay.
+ */
+final class LatestOrdersLoader {
+
+    record Result(Map<String, OrderRow> orders, long records, long elapsedNanos) {}
+
+    private LatestOrdersLoader() {}
+
+    /** {@code consumerProps} needs bootstrap servers and the schema registry URL; (de)serializers are set here. */
+    static Result load(Map<String, Object> consumerProps, String topic, int threads) throws Exception {
+        Map<String, Object> props = new HashMap<>(consumerProps);
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);   // a warm-up is not listener traffic
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, OrderCreatedDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5_000);
+
+        long start = System.nanoTime();
+        List<TopicPartition> partitions = new ArrayList<>();
+        Map<TopicPartition, Long> ends;
+        try (var meta = new KafkaConsumer<String, OrderCreated>(props)) {
+            for (PartitionInfo p : meta.partitionsFor(topic)) partitions.add(new TopicPartition(topic, p.partition()));
+            ends = meta.endOffsets(partitions);
+        }
+
+        int workers = Math.max(1, Math.min(threads, partitions.size()));
+        List<List<TopicPartition>> assignment = new ArrayList<>();
+        for (int w = 0; w < workers; w++) assignment.add(new ArrayList<>());
+        for (int i = 0; i < partitions.size(); i++) assignment.get(i % workers).add(partitions.get(i));
+
+        Map<String, OrderRow> orders = new ConcurrentHashMap<>();
+        AtomicLong records = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (List<TopicPartition> mine : assignment) {
+                running.add(pool.submit(() -> { read(props, mine, ends, orders, records); return null; }));
+            }
+            for (Future<?> f : running) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(orders, records.get(), System.nanoTime() - start);
+    }
+
+    // An order's records all sit in one partition, so workers never race on a key
+    private static void read(Map<String, Object> props, List<TopicPartition> partitions, Map<TopicPartition, Long> ends,
+                             Map<String, OrderRow> orders, AtomicLong records) {
+        try (var consumer = new KafkaConsumer<String, OrderCreated>(props)) {
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            List<TopicPartition> open = new ArrayList<>(partitions);
+            open.removeIf(tp -> ends.get(tp) == 0);
+            while (!open.isEmpty()) {
+                long n = 0;
+                for (ConsumerRecord<String, OrderCreated> rec : consumer.poll(Duration.ofMillis(200))) {
+                    n++;
+                    if (rec.value() == null) orders.remove(rec.key());
+                    else orders.put(rec.key(), OrderRow.of(rec.value()));
+                }
+                records.addAndGet(n);
+                open.removeIf(tp -> consumer.position(tp) >= ends.get(tp));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.tests;
+
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Pauses a listener container while at least one reason holds it closed, so independent controllers
+ * (DB latency, circuit breaker, ...) can pause and resume without undoing each other. A paused container keeps
+ * polling with its partitions paused, so the group sees no missed poll and no rebalance.
+ */
+final class ListenerGate {
+
+    private final Supplier<MessageListenerContainer> container;
+    private final Set<String> reasons = new HashSet<>();
+    private long pauses;
+
+    ListenerGate(Supplier<MessageListenerContainer> container) {
+        this.container = container;
+    }
+
+    /** @return true if this call paused the container */
+    synchronized boolean close(String reason) {
+        if (!reasons.add(reason) || reasons.size() > 1) return false;
+        pauses++;
+        container.get().pause();
+        return true;
+    }
+
+    /** @return true if this call resumed the container */
+    synchronized boolean open(String reason) {
+        if (!reasons.remove(reason) || !reasons.isEmpty()) return false;
+        container.get().resume();
+        return true;
+    }
+
+    synchronized boolean isClosed(String reason) { return reasons.contains(reason); }
+
+    synchronized boolean isOpen() { return reasons.isEmpty(); }
+
+    synchronized long pauses() { return pauses; }
+}
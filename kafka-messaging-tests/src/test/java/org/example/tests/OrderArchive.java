@@ -0,0 +1,321 @@
+package org.example.tests;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.example.avro.v2.OrderCreated;
+
+import java.io.BufferedInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Archives every stored order into rolling Avro object container files ({@code app.archive.enabled=true}), so
+ * Postgres need not keep orders forever. Blocks are compressed with the configured codec: {@code zstandard} (the
+ * zstd-jni that kafka-clients already ships) or {@code deflate}, optionally with a level, as in
+ * {@code zstandard-3}.
+ * <p>
+ * A file is written as {@code .avro.open} and rolled once it reaches {@code maxFileBytes} on disk or has been
+ * open for {@code rollInterval}. On roll it is renamed to {@code orders-<min ts>-<max ts>-<opened>.avro}, so
+ * {@link #scan} can skip whole files by event time without opening them. An open file is locked while it is
+ * written; one left {@code .open} by a crash is sealed when an archive next starts on the directory: the blocks
+ * that read back intact are rewritten into a scannable file and the cut-off tail is dropped.
+ * <p>
+ * The archive is a copy and must not fail the listener: a write error seals what the open file holds so far, is
+ * counted in {@link #failures()}, and the next order starts a new file.
+ * <p>
+ * {@link #onStored} completes once the order is appended, before its block reaches the file, so the order is acked
+ * without waiting for the archive. The writer buffers a block until about 64 KB of records, and the roller writes
+ * out a partial block at least once a second. A crash therefore loses up to the last second (or the last block)
+ * of orders from the archive; they are still in the orders table, so anything purging the table must leave
+ * orders newer than the latest sealed file. Completing on the flush instead would hold the direct sink's
+ * listener for up to a second on every order.
+ */
+final class OrderArchive implements TestApp.OrderService.AfterStore, AutoCloseable {
+
+    static final String SUFFIX = ".avro";
+    private static final String OPEN_SUFFIX = ".avro.open";
+    private static final String SEALING_SUFFIX = ".avro.sealing";
+    // open files of the archives in this JVM; probing their lock would drop it, as POSIX locks are per process
+    private static final Set<Path> LIVE = ConcurrentHashMap.newKeySet();
+
+    private final Path dir;
+    private final CodecFactory codec;
+    private final long maxFileBytes;
+    private final long rollNanos;
+    private final ScheduledExecutorService roller;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private DataFileWriter<OrderCreated> writer;
+    private FileChannel channel;
+    private CountingOutputStream out;
+    private Path openPath;
+    private long openedNanos;
+    private long openedMillis;
+    private long minTs;
+    private long maxTs;
+    private boolean unflushed;   // appended since the last block was written out
+
+    OrderArchive(Path dir, String codec, long maxFileBytes, Duration rollInterval) throws IOException {
+        this.dir = Files.createDirectories(dir).toAbsolutePath();
+        this.codec = codec(codec);
+        this.maxFileBytes = maxFileBytes;
+        this.rollNanos = rollInterval.toNanos();
+        recover();
+        this.roller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "orders-archive-roll");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.min(rollNanos, TimeUnit.SECONDS.toNanos(1));
+        roller.scheduleWithFixedDelay(this::rollOrFlush, every, every, TimeUnit.NANOSECONDS);
+    }
+
+    /** {@code null}, {@code deflate} or {@code zstandard}, each optionally followed by {@code -level}. */
+    static CodecFactory codec(String name) {
+        int dash = name.indexOf('-');
+        String base = dash < 0 ? name : name.substring(0, dash);
+        Integer level = dash < 0 ? null : Integer.valueOf(name.substring(dash + 1));
+        return switch (base) {
+            case "null" -> CodecFactory.nullCodec();
+            case "deflate" -> level == null ? CodecFactory.deflateCodec(CodecFactory.DEFAULT_DEFLATE_LEVEL) : CodecFactory.deflateCodec(level);
+            case "zstandard" -> level == null ? CodecFactory.zstandardCodec(CodecFactory.DEFAULT_ZSTANDARD_LEVEL) : CodecFactory.zstandardCodec(level);
+            default -> throw new IllegalArgumentException("unknown archive codec: " + name);
+        };
+    }
+
+    // Never fails the order: archive errors are counted instead. Does not wait for the block to be written out
+    @Override
+    public CompletableFuture<?> onStored(OrderRow row) {
+        // a row migrated from the legacy table has no event to archive
+        if (row.eventId() != null) append(row.toEvent());
+        return CompletableFuture.completedFuture(null);
+    }
+
+    synchronized void append(OrderCreated evt) {
+        try {
+            if (writer == null) open();
+            writer.append(evt);
+            long ts = evt.getTs().toEpochMilli();
+            minTs = Math.min(minTs, ts);
+            maxTs = Math.max(maxTs, ts);
+            records.incrementAndGet();
+            unflushed = true;
+            if (out.count >= maxFileBytes) roll();
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            abandon();
+        }
+    }
+
+    /** Closes the open file, if it holds anything, and makes it visible to {@link #scan}. */
+    synchronized void roll() throws IOException {
+        if (writer == null) return;
+        writer.close();
+        writer = null;
+        if (minTs > maxTs) {
+            Files.delete(openPath);
+        } else {
+            Files.move(openPath, sealed(minTs, maxTs, openedMillis), StandardCopyOption.ATOMIC_MOVE);
+            files.incrementAndGet();
+        }
+        LIVE.remove(openPath);
+        openPath = null;
+    }
+
+    /**
+     * Rewrites every record of {@code open} that reads back intact into a sealed, scannable file and deletes
+     * {@code open}. Reading stops at the first block cut short or corrupted by a crash or a failed write.
+     *
+     * @return the records recovered
+     */
+    private long seal(Path open) throws IOException {
+        String name = open.getFileName().toString();
+        long opened = Long.parseLong(name.split("[-.]")[1]);   // orders, opened millis, nanos, avro, open
+        Path sealing = dir.resolve(name.substring(0, name.length() - OPEN_SUFFIX.length()) + SEALING_SUFFIX);
+        long n = 0, lo = Long.MAX_VALUE, hi = Long.MIN_VALUE;
+        try (var copy = new DataFileWriter<>(new SpecificDatumWriter<>(OrderCreated.class)).setCodec(codec)) {
+            copy.create(OrderCreated.getClassSchema(), Files.newOutputStream(sealing));
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(open), 1 << 16);
+                 var stream = new DataFileStream<>(in, new SpecificDatumReader<>(OrderCreated.class))) {
+                OrderCreated evt = null;
+                while (stream.hasNext()) {
+                    evt = stream.next(evt);
+                    copy.append(evt);
+                    long ts = evt.getTs().toEpochMilli();
+                    lo = Math.min(lo, ts);
+                    hi = Math.max(hi, ts);
+                    n++;
+                }
+            } catch (IOException | AvroRuntimeException e) {
+                // the rest of the file is lost; what was read so far is kept
+            }
+        }
+        if (n == 0) {
+            Files.delete(sealing);
+        } else {
+            // a crash after this move re-seals the same records under the same name
+            Files.move(sealing, sealed(lo, hi, opened), StandardCopyOption.ATOMIC_MOVE);
+            files.incrementAndGet();
+        }
+        Files.delete(open);
+        return n;
+    }
+
+    long records() { return records.get(); }
+
+    /** Closed (scannable) files written by this instance. */
+    long files() { return files.get(); }
+
+    long failures() { return failures.get(); }
+
+    /**
+     * Reads every archived order with {@code from <= ts < to}, file by file and block by block, into one reused
+     * record: {@code sink} must copy what it keeps. Files whose name range misses the window are not opened.
+     *
+     * @return the number of orders passed to {@code sink}
+     */
+    static long scan(Path dir, Instant from, Instant to, Consumer<OrderCreated> sink) throws IOException {
+        long lo = from.toEpochMilli(), hi = to.toEpochMilli(), n = 0;
+        List<Path> candidates;
+        try (Stream<Path> list = Files.list(dir)) {
+            candidates = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        var reader = new SpecificDatumReader<>(OrderCreated.class);
+        OrderCreated reuse = null;
+        for (Path p : candidates) {
+            String[] parts = p.getFileName().toString().split("[-.]");   // orders, min, max, opened, avro
+            if (Long.parseLong(parts[2]) < lo || Long.parseLong(parts[1]) >= hi) continue;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(p), 1 << 16);
+                 var stream = new DataFileStream<>(in, reader)) {
+                while (stream.hasNext()) {
+                    reuse = stream.next(reuse);
+                    long ts = reuse.getTs().toEpochMilli();
+                    if (ts >= lo && ts < hi) {
+                        sink.accept(reuse);
+                        n++;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        roller.shutdownNow();
+        roll();
+    }
+
+    private Path sealed(long lo, long hi, long opened) {
+        return dir.resolve(String.format("orders-%013d-%013d-%013d%s", lo, hi, opened, SUFFIX));
+    }
+
+    // Seals the files other archives left open; a file still locked is being written by another process
+    private void recover() throws IOException {
+        List<Path> open;
+        try (Stream<Path> list = Files.list(dir)) {
+            open = list.filter(p -> p.getFileName().toString().endsWith(OPEN_SUFFIX) && !LIVE.contains(p)).sorted().toList();
+        }
+        for (Path p : open) {
+            try (FileChannel ch = FileChannel.open(p, StandardOpenOption.WRITE)) {
+                FileLock lock = ch.tryLock();
+                if (lock == null) continue;
+                lock.release();
+            }
+            try {
+                seal(p);
+            } catch (IOException | RuntimeException e) {
+                // left .open for the next start
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        openedNanos = System.nanoTime();
+        openedMillis = System.currentTimeMillis();
+        openPath = dir.resolve("orders-" + openedMillis + "-" + openedNanos + OPEN_SUFFIX);
+        LIVE.add(openPath);
+        channel = FileChannel.open(openPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        channel.lock();   // released when the writer closes the channel
+        out = new CountingOutputStream(Channels.newOutputStream(channel));
+        writer = new DataFileWriter<>(new SpecificDatumWriter<>(OrderCreated.class)).setCodec(codec);
+        writer.create(OrderCreated.getClassSchema(), out);
+        minTs = Long.MAX_VALUE;
+        maxTs = Long.MIN_VALUE;
+        unflushed = false;
+    }
+
+    // Rolls a file that is due; otherwise writes out the partial block, which bounds what a crash loses
+    private synchronized void rollOrFlush() {
+        if (writer == null) return;
+        try {
+            if (System.nanoTime() - openedNanos >= rollNanos) {
+                roll();
+            } else if (unflushed) {
+                writer.flush();
+                unflushed = false;
+            }
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            abandon();
+        }
+    }
+
+    // Seals what reached the open file; if even that fails, the file stays .open until the next start
+    private void abandon() {
+        try {
+            if (writer != null) writer.close();
+        } catch (IOException | RuntimeException ignored) {
+            // the intact blocks are still sealed below
+        }
+        writer = null;
+        if (openPath == null) return;
+        try {
+            channel.close();
+            seal(openPath);
+        } catch (IOException | RuntimeException ignored) {
+            // already counted as one failure
+        }
+        LIVE.remove(openPath);
+        openPath = null;
+    }
+
+    // Bytes that reached the file; DataFileWriter writes whole compressed blocks
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) { super(out); }
+
+        @Override public void write(int b) throws IOException { out.write(b); count++; }
+
+        @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); count += len; }
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.DataFileStream;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.example.tests.OrderFixtures.order;
+
+public class OrderArchiveIT {
+
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir Path dir;
+
+    @Test @AllureId("IT-025")
+    void rollsBySizeAndTime_andScansExactlyTheRequestedTimeRange() throws Exception {
+        Path bySize = dir.resolve("by-size");
+        int n = 20_000;
+        try (var archive = new OrderArchive(bySize, "zstandard-3", 64 * 1024, Duration.ofHours(1))) {
+            // one order every 100ms of event time
+            for (int i = 0; i < n; i++) archive.append(order("ORD-AR" + i, "C-" + (i % 50), 2_500, T0.plusMillis(i * 100L)));
+            assertThat(archive.records()).isEqualTo(n);
+            assertThat(archive.failures()).isZero();
+        }
+        assertThat(archiveFiles(bySize)).hasSizeGreaterThan(2);
+
+        List<String> ids = new ArrayList<>();
+        long read = OrderArchive.scan(bySize, T0.plusSeconds(500), T0.plusSeconds(1_000), o -> ids.add(o.getOrderId().toString()));
+        assertThat(read).isEqualTo(5_000);
+        assertThat(ids).hasSize(5_000).startsWith("ORD-AR5000").endsWith("ORD-AR9999");
+        assertThat(OrderArchive.scan(bySize, T0, T0.plusSeconds(n), o -> {})).isEqualTo(n);
+        assertThat(OrderArchive.scan(bySize, T0.minusSeconds(60), T0, o -> {})).isZero();
+
+        Path byTime = dir.resolve("by-time");
+        try (var archive = new OrderArchive(byTime, "deflate", Long.MAX_VALUE, Duration.ofMillis(200))) {
+            for (int i = 0; i < 10; i++) archive.append(order("ORD-AR" + i, "C-1", 2_500, T0.plusSeconds(i)));
+            // rolled by the timer, with no further appends
+            await().atMost(Duration.ofSeconds(5)).until(() -> archive.files() == 1);
+            for (int i = 10; i < 20; i++) archive.append(order("ORD-AR" + i, "C-1", 2_500, T0.plusSeconds(i)));
+        }
+        assertThat(archiveFiles(byTime)).hasSize(2);
+        assertThat(OrderArchive.scan(byTime, T0, T0.plusSeconds(20), o -> {})).isEqualTo(20);
+    }
+
+    @Test @AllureId("IT-034")
+    void writeErrorsAndCrashes_keepEveryIntactBlock() throws Exception {
+        Path failed = dir.resolve("failed");
+        try (var archive = new OrderArchive(failed, "deflate", Long.MAX_VALUE, Duration.ofHours(1))) {
+            for (int i = 0; i < 1_000; i++) archive.append(order("ORD-AR" + i, "C-1", 2_500, T0.plusSeconds(i)));
+            // no customerId: the write fails, and the file is sealed with what it holds
+            archive.append(order("ORD-AR1000", null, 2_500, T0.plusSeconds(1_000)));
+            assertThat(archive.failures()).isEqualTo(1);
+            assertThat(archive.files()).isEqualTo(1);
+            archive.append(order("ORD-AR1001", "C-1", 2_500, T0.plusSeconds(1_001)));
+        }
+        assertThat(openFiles(failed)).isEmpty();
+        assertThat(archiveFiles(failed)).hasSize(2);
+        assertThat(OrderArchive.scan(failed, T0, T0.plusSeconds(2_000), o -> {})).isEqualTo(1_001);
+
+        // a crash: the open file stops mid-block, and the next archive on the directory seals it
+        Path live = dir.resolve("live"), crashed = Files.createDirectories(dir.resolve("crashed"));
+        try (var archive = new OrderArchive(live, "null", Long.MAX_VALUE, Duration.ofHours(1))) {
+            for (int i = 0; i < 20_000; i++) archive.append(order("ORD-AR" + i, "C-1", 2_500, T0.plusMillis(i)));
+            Path open = openFiles(live).get(0);
+            // a file still being written is left alone
+            try (var other = new OrderArchive(live, "null", Long.MAX_VALUE, Duration.ofHours(1))) {
+                assertThat(other.files()).isZero();
+            }
+            assertThat(openFiles(live)).containsExactly(open);
+            byte[] written = Files.readAllBytes(open);
+            Files.write(crashed.resolve(open.getFileName()), Arrays.copyOf(written, written.length - 100));
+        }
+        try (var archive = new OrderArchive(crashed, "null", Long.MAX_VALUE, Duration.ofHours(1))) {
+            assertThat(archive.files()).isEqualTo(1);
+        }
+        assertThat(openFiles(crashed)).isEmpty();
+        assertThat(OrderArchive.scan(crashed, T0, T0.plusSeconds(60), o -> {})).isPositive().isLessThan(20_000);
+    }
+
+    @Test @AllureId("IT-040")
+    void partialBlock_reachesTheOpenFileWithinASecond() throws Exception {
+        Path quiet = dir.resolve("quiet");
+        try (var archive = new OrderArchive(quiet, "deflate", Long.MAX_VALUE, Duration.ofHours(1))) {
+            // far less than a block: only the periodic flush writes these out
+            for (int i = 0; i < 10; i++) archive.append(order("ORD-AR" + i, "C-1", 2_500, T0.plusSeconds(i)));
+            Path open = openFiles(quiet).get(0);
+            await().atMost(Duration.ofSeconds(5)).until(() -> readable(open) == 10);
+            assertThat(archive.failures()).isZero();
+        }
+    }
+
+    @Test @AllureId("IT-026")
+    void reportsCompressionRatioAndThroughputPerCodec() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000) * 20;
+        var zipf = new ZipfSampler(10_000, 1.0, 17);
+        var random = new SplittableRandom(17);
+        List<OrderCreated> orders = new ArrayList<>(n);
+        long rawBytes = 0;
+        for (int i = 0; i < n; i++) {
+            var o = order("ORD-AR" + i, "C-" + zipf.next(), 100 + random.nextInt(50_000), T0.plusMillis(i * 10L));
+            orders.add(o);
+            rawBytes += OrderSpool.encode(o).length;
+        }
+
+        var report = new StringBuilder(String.format("%-12s %6s %10s %7s %12s %10s %12s%n",
+                "codec", "files", "KB", "ratio", "write rec/s", "write MB/s", "scan rec/s"));
+        for (String codec : List.of("null", "deflate-6", "zstandard-3")) {
+            Path out = dir.resolve(codec);
+            long start = System.nanoTime();
+            try (var archive = new OrderArchive(out, codec, 8 * 1024 * 1024, Duration.ofHours(1))) {
+                for (OrderCreated o : orders) archive.append(o);
+                assertThat(archive.failures()).isZero();
+            }
+            double writeSecs = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            long read = OrderArchive.scan(out, T0, T0.plusSeconds(n), o -> {});
+            double scanSecs = (System.nanoTime() - start) / 1e9;
+            assertThat(read).isEqualTo(n);
+
+            List<Path> files = archiveFiles(out);
+            long fileBytes = 0;
+            for (Path f : files) fileBytes += Files.size(f);
+            double ratio = (double) rawBytes / fileBytes;
+            report.append(String.format("%-12s %6d %10d %7.2f %12.0f %10.1f %12.0f%n", codec, files.size(), fileBytes / 1024,
+                    ratio, n / writeSecs, rawBytes / writeSecs / 1e6, n / scanSecs));
+            if (!codec.equals("null")) assertThat(ratio).isGreaterThan(1.5);
+        }
+
+        Allure.addAttachment("order archive codecs, " + n + " orders, " + rawBytes / 1024 + " KB raw Avro", "text/plain", report.toString());
+    }
+
+    // records that read back from a file still being written, as a recovery after a crash would find them
+    private static long readable(Path file) throws Exception {
+        long n = 0;
+        try (InputStream in = Files.newInputStream(file);
+             var stream = new DataFileStream<>(in, new SpecificDatumReader<>(OrderCreated.class))) {
+            while (stream.hasNext()) {
+                stream.next();
+                n++;
+            }
+        } catch (IOException | AvroRuntimeException e) {
+            // a header or block not fully written yet
+        }
+        return n;
+    }
+
+    private static List<Path> openFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".avro.open")).toList();
+        }
+    }
+
+    private static List<Path> archiveFiles(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(OrderArchive.SUFFIX)).sorted().toList();
+        }
+    }
+}
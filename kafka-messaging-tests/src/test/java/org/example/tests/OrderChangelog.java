@@ -0,0 +1,36 @@
+package org.example.tests;
+
+import org.example.avro.v2.OrderCreated;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Republishes every stored order to the compacted {@code app.topics.latest} topic, keyed by {@code orderId}.
+ * Compaction keeps one record per order, so {@link LatestOrdersLoader} warms up from the number of orders
+ * rather than the length of the {@code orders.created} history.
+ * <p>
+ * The table is first-write-wins and compaction is last-write-wins, so what is published is the stored version,
+ * never the incoming event: a redelivery, or a second event with a different payload for the same order,
+ * republishes the row the table kept. The order is only acked once the send is acked, so a failed send is retried
+ * rather than leaving the changelog behind the table.
+ */
+final class OrderChangelog implements TestApp.OrderService.AfterStore {
+
+    private final KafkaTemplate<String, OrderCreated> kafka;
+    private final String topic;
+
+    OrderChangelog(KafkaTemplate<String, OrderCreated> kafka, String topic) {
+        this.kafka = kafka;
+        this.topic = topic;
+    }
+
+    @Override
+    public CompletableFuture<?> onStored(OrderRow row) {
+        // a row migrated from the legacy table has no event to publish
+        if (row.eventId() == null) return CompletableFuture.completedFuture(null);
+        return kafka.send(topic, row.orderId(), row.toEvent());
+    }
+
+    String topic() { return topic; }
+}
@@ -0,0 +1,183 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientFactory;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.example.avro.v2.OrderCreated;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Confluent-framed {@link OrderCreated} written with any registered version (v1 or v2) into the
+ * v2 specific class. Resolution for each writer/reader pair comes from an {@link AvroResolverCache}.
+ * <p>
+ * With {@link #PROJECTION_FIELDS_CONFIG} set, the reader schema is cut down to those fields: the decoder
+ * skips everything else on the wire and the returned {@code OrderCreated} only has the projected fields set.
+ * Such a record cannot be re-encoded, so its wire bytes are kept in the {@link #ORIGINAL_VALUE_HEADER} header
+ * for {@link OrderDeadLetters} to forward.
+ * <p>
+ * Binary decoders are reused per thread. With {@link #REUSE_RECORDS_CONFIG} the deserializer also decodes
+ * into a ring of {@code max.poll.records} instances, since a whole poll is deserialized before the listener
+ * sees the first record. Only enable it for handlers that do not keep the record (or its strings and
+ * buffers) past the call.
+ */
+public class OrderCreatedDeserializer implements Deserializer<OrderCreated> {
+
+    public static final String RESOLVER_CACHE_SIZE_CONFIG = "orders.avro.resolver-cache.size";
+    public static final String PROJECTION_FIELDS_CONFIG = "orders.avro.projection.fields";
+    public static final String REUSE_RECORDS_CONFIG = "orders.avro.reuse-records";
+    static final int DEFAULT_RESOLVER_CACHE_SIZE = 64;
+    static final String ORIGINAL_VALUE_HEADER = "orders.avro.original-value";
+
+    private static final ThreadLocal<BinaryDecoder> DECODERS = new ThreadLocal<>();
+
+    private record Resolved(int schemaId, DatumReader<Object> reader) {}
+
+    private SchemaRegistryClient registry;
+    private Schema readerSchema = OrderCreated.getClassSchema();
+    // positions of the projected fields in OrderCreated; null when decoding the full record
+    private int[] projectedPositions;
+    // bounded; also indexes readers by schema id, so a known id costs no registry call or fingerprint
+    private AvroResolverCache<Object> resolvers;
+    // last id seen; skips the cache lookup while the writer version does not change
+    private volatile Resolved last;
+    // reuse ring, null unless REUSE_RECORDS_CONFIG is set
+    private Object[] decodedRing;
+    private OrderCreated[] orderRing;
+    private int ringIndex;
+
+    public OrderCreatedDeserializer() {}
+
+    OrderCreatedDeserializer(SchemaRegistryClient registry, int resolverCacheSize, List<String> projectedFields) {
+        this(registry, resolverCacheSize, projectedFields, 0);
+    }
+
+    OrderCreatedDeserializer(SchemaRegistryClient registry, int resolverCacheSize, List<String> projectedFields, int reuseRingSize) {
+        this.registry = registry;
+        init(resolverCacheSize, projectedFields, reuseRingSize);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object url = configs.get(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG);
+        if (url == null) throw new IllegalArgumentException("schema.registry.url is required");
+        this.registry = SchemaRegistryClientFactory.newClient(List.of(String.valueOf(url).split(",")),
+                AbstractKafkaSchemaSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT, List.of(new AvroSchemaProvider()), configs, Map.of());
+        Object size = configs.get(RESOLVER_CACHE_SIZE_CONFIG);
+        Object fields = configs.get(PROJECTION_FIELDS_CONFIG);
+        Object maxPollRecords = configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG);
+        int ringSize = Boolean.parseBoolean(String.valueOf(configs.get(REUSE_RECORDS_CONFIG)))
+                ? (maxPollRecords == null ? ConsumerConfig.DEFAULT_MAX_POLL_RECORDS : Integer.parseInt(String.valueOf(maxPollRecords)))
+                : 0;
+        init(size == null ? DEFAULT_RESOLVER_CACHE_SIZE : Integer.parseInt(String.valueOf(size)),
+                fields == null || String.valueOf(fields).isBlank() ? List.of() : Arrays.asList(String.valueOf(fields).split("\\s*,\\s*")),
+                ringSize);
+    }
+
+    private void init(int resolverCacheSize, List<String> projectedFields, int reuseRingSize) {
+        if (reuseRingSize > 0) {
+            this.decodedRing = new Object[reuseRingSize];
+            this.orderRing = new OrderCreated[reuseRingSize];
+        }
+        if (projectedFields.isEmpty()) {
+            SpecificData model = SpecificData.getForClass(OrderCreated.class);
+            this.resolvers = new AvroResolverCache<>(resolverCacheSize, (writer, reader) -> new SpecificDatumReader<>(writer, reader, model));
+            return;
+        }
+        this.readerSchema = project(OrderCreated.getClassSchema(), projectedFields);
+        this.projectedPositions = readerSchema.getFields().stream()
+                .mapToInt(f -> OrderCreated.getClassSchema().getField(f.name()).pos()).toArray();
+        // Generic model so values land by projected position; OrderCreated stores ts as Instant.
+        GenericData model = new GenericData();
+        model.addLogicalTypeConversion(new TimeConversions.TimestampMillisConversion());
+        this.resolvers = new AvroResolverCache<>(resolverCacheSize, (writer, reader) -> new GenericDatumReader<>(writer, reader, model));
+    }
+
+    @Override
+    public OrderCreated deserialize(String topic, Headers headers, byte[] data) {
+        OrderCreated order = deserialize(topic, data);
+        // the consumer allocates data per record, so this keeps a reference rather than a copy
+        if (order != null && projectedPositions != null) headers.add(ORIGINAL_VALUE_HEADER, data);
+        return order;
+    }
+
+    @Override
+    public OrderCreated deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        int schemaId = ConfluentWire.schemaId(data);
+        Resolved resolved = last;
+        if (resolved == null || resolved.schemaId() != schemaId) {
+            DatumReader<Object> reader = resolvers.cached(schemaId);
+            // the registry is called outside any lock; racing threads may both fetch a new id
+            if (reader == null) reader = resolvers.get(schemaId, writerSchema(schemaId), readerSchema);
+            resolved = new Resolved(schemaId, reader);
+            last = resolved;
+        }
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(
+                data, ConfluentWire.HEADER_SIZE, data.length - ConfluentWire.HEADER_SIZE, DECODERS.get());
+        DECODERS.set(decoder);
+        try {
+            if (decodedRing == null) {
+                Object decoded = resolved.reader().read(null, decoder);
+                return projectedPositions == null ? (OrderCreated) decoded : toOrder((GenericRecord) decoded, new OrderCreated());
+            }
+            int slot = ringIndex;
+            ringIndex = slot + 1 == decodedRing.length ? 0 : slot + 1;
+            Object decoded = resolved.reader().read(decodedRing[slot], decoder);
+            decodedRing[slot] = decoded;
+            if (projectedPositions == null) return (OrderCreated) decoded;
+            OrderCreated order = orderRing[slot] == null ? (orderRing[slot] = new OrderCreated()) : orderRing[slot];
+            return toOrder((GenericRecord) decoded, order);
+        } catch (Exception e) {
+            throw new SerializationException("Error deserializing OrderCreated for id " + schemaId, e);
+        }
+    }
+
+    /** Record schema with the same full name as {@code full} but only the given fields, in declaration order. */
+    static Schema project(Schema full, List<String> fieldNames) {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Schema.Field f : full.getFields()) {
+            if (fieldNames.contains(f.name())) fields.add(new Schema.Field(f, f.schema()));
+        }
+        if (fields.size() != fieldNames.size()) {
+            throw new IllegalArgumentException("Unknown field in projection " + fieldNames + " for " + full.getFullName());
+        }
+        return Schema.createRecord(full.getName(), full.getDoc(), full.getNamespace(), false, fields);
+    }
+
+    AvroResolverCache<Object> resolvers() { return resolvers; }
+
+    private OrderCreated toOrder(GenericRecord projected, OrderCreated order) {
+        for (int i = 0; i < projectedPositions.length; i++) {
+            order.put(projectedPositions[i], projected.get(i));
+        }
+        return order;
+    }
+
+    private Schema writerSchema(int schemaId) {
+        try {
+            return ((AvroSchema) registry.getSchemaById(schemaId)).rawSchema();
+        } catch (Exception e) {
+            throw new SerializationException("Error retrieving Avro schema for id " + schemaId, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderCreatedDeserializerIT {
+
+    private static final String SCOPE = "deserializer-it";
+
+    @AfterEach
+    void dropScope() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    private static Schema parse(String path) throws Exception {
+        return new Schema.Parser().parse(Files.readString(Path.of(path)));
+    }
+
+    static byte[] framed(int schemaId, Schema schema, GenericData.Record rec) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ConfluentWire.header(schemaId));
+        BinaryEncoder enc = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericData.Record>(schema).write(rec, enc);
+        enc.flush();
+        return out.toByteArray();
+    }
+
+    static GenericData.Record order(Schema schema, String orderId) {
+        GenericData.Record rec = new GenericData.Record(schema);
+        rec.put("eventId", "EVT-" + orderId);
+        rec.put("orderId", orderId);
+        rec.put("customerId", "C-1");
+        rec.put("total", ByteBuffer.wrap(new BigDecimal("12.34").movePointRight(2).unscaledValue().toByteArray()));
+        rec.put("ts", Instant.now().toEpochMilli());
+        return rec;
+    }
+
+    @Test
+    void mixedVersionTopic_readsV1AndV2_intoV2Class() throws Exception {
+        Schema v1 = parse("src/test/avro/v1/OrderCreated.avsc");
+        Schema v2 = parse("src/test/avro/v2/OrderCreated.avsc");
+        SchemaRegistryClient registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        int v1Id = registry.register("orders.created-value", new AvroSchema(v1));
+        int v2Id = registry.register("orders.created-value", new AvroSchema(v2));
+
+        GenericData.Record recV2 = order(v2, "ORD-2");
+        recV2.put("promotionCode", "SAVE10");
+
+        try (var deserializer = new OrderCreatedDeserializer()) {
+            deserializer.configure(Map.of("schema.registry.url", "mock://" + SCOPE), false);
+
+            OrderCreated fromV1 = deserializer.deserialize("orders.created", framed(v1Id, v1, order(v1, "ORD-1")));
+            OrderCreated fromV2 = deserializer.deserialize("orders.created", framed(v2Id, v2, recV2));
+            for (int i = 0; i < 100; i++) {
+                deserializer.deserialize("orders.created", framed(i % 2 == 0 ? v1Id : v2Id, i % 2 == 0 ? v1 : v2, order(i % 2 == 0 ? v1 : v2, "ORD-" + i)));
+            }
+
+            assertThat(fromV1.getOrderId().toString()).isEqualTo("ORD-1");
+            assertThat(fromV1.getPromotionCode()).isNull();
+            assertThat(fromV2.getPromotionCode().toString()).isEqualTo("SAVE10");
+            assertThat(new BigDecimal(new java.math.BigInteger(fromV1.getTotal().array()), 2)).isEqualByComparingTo("12.34");
+            // one resolution per (writer, reader) pair, never per record
+            assertThat(deserializer.resolvers().misses()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void projectionMode_decodesOnlyDeclaredFields() throws Exception {
+        Schema v1 = parse("src/test/avro/v1/OrderCreated.avsc");
+        Schema v2 = parse("src/test/avro/v2/OrderCreated.avsc");
+        SchemaRegistryClient registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        int v1Id = registry.register("orders.created-value", new AvroSchema(v1));
+        int v2Id = registry.register("orders.created-value", new AvroSchema(v2));
+        GenericData.Record recV2 = order(v2, "ORD-P2");
+        recV2.put("promotionCode", "SAVE10");
+
+        try (var deserializer = new OrderCreatedDeserializer(registry, 4, List.of("orderId", "total", "ts"))) {
+            OrderCreated fromV1 = deserializer.deserialize("orders.created", framed(v1Id, v1, order(v1, "ORD-P1")));
+            byte[] wire = framed(v2Id, v2, recV2);
+            var headers = new RecordHeaders();
+            OrderCreated fromV2 = deserializer.deserialize("orders.created", headers, wire);
+
+            assertThat(fromV1.getOrderId().toString()).isEqualTo("ORD-P1");
+            assertThat(fromV2.getOrderId().toString()).isEqualTo("ORD-P2");
+            assertThat(new BigDecimal(new java.math.BigInteger(fromV2.getTotal().array()), 2)).isEqualByComparingTo("12.34");
+            assertThat(fromV2.getTs()).isInstanceOf(Instant.class);
+            // skipped on the wire, never materialised
+            assertThat(fromV2.getEventId()).isNull();
+            assertThat(fromV2.getCustomerId()).isNull();
+            assertThat(fromV2.getPromotionCode()).isNull();
+            // kept for the DLQ, since a projection cannot be re-encoded
+            assertThat(headers.lastHeader(OrderCreatedDeserializer.ORIGINAL_VALUE_HEADER).value()).isEqualTo(wire);
+        }
+    }
+
+    @Test
+    void projection_rejectsUnknownFields() {
+        assertThatThrownBy(() -> OrderCreatedDeserializer.project(OrderCreated.getClassSchema(), List.of("orderId", "nope")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void recordReuse_keepsBatchIntact_andCutsAllocatedBytesPerRecord() throws Exception {
+        Schema v2 = parse("src/test/avro/v2/OrderCreated.avsc");
+        SchemaRegistryClient registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        int v2Id = registry.register("orders.created-value", new AvroSchema(v2));
+        byte[] small = framed(v2Id, v2, order(v2, "ORD-1"));
+        GenericData.Record big = order(v2, "ORD-2");
+        big.put("total", ByteBuffer.wrap(new BigDecimal("123456.78").movePointRight(2).unscaledValue().toByteArray()));
+        byte[] large = framed(v2Id, v2, big);
+
+        try (var pooled = new OrderCreatedDeserializer(registry, 4, List.of(), 2);
+             var fresh = new OrderCreatedDeserializer(registry, 4, List.of())) {
+            // a poll batch fits the ring: earlier records are not overwritten by later ones
+            OrderCreated first = pooled.deserialize("orders.created", large);
+            OrderCreated second = pooled.deserialize("orders.created", small);
+            assertThat(first.getOrderId().toString()).isEqualTo("ORD-2");
+            assertThat(second.getOrderId().toString()).isEqualTo("ORD-1");
+            // the slot reused for `first` now holds a shorter decimal in a longer buffer
+            OrderCreated reused = pooled.deserialize("orders.created", small);
+            assertThat(reused).isSameAs(first);
+            assertThat(TestApp.total(reused.getTotal())).isEqualByComparingTo("12.34");
+
+            long pooledBytes = allocatedBytesPerRecord(() -> pooled.deserialize("orders.created", small));
+            long freshBytes = allocatedBytesPerRecord(() -> fresh.deserialize("orders.created", small));
+
+            // relative to the non-reusing decoder in the same JVM, so JIT and TLAB details cancel out; what is left
+            // per pooled record is the boxed ts and its Instant
+            assertThat((double) freshBytes / Math.max(pooledBytes, 1))
+                    .as("fresh/pooled bytes per record (%d/%d)", freshBytes, pooledBytes).isGreaterThan(2.0);
+        }
+    }
+
+    private static long allocatedBytesPerRecord(Runnable decode) {
+        var threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().threadId();
+        int n = 200_000;
+        for (int i = 0; i < n; i++) decode.run();   // warm up JIT so escape analysis applies to both paths
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < n; i++) decode.run();
+        return (threads.getThreadAllocatedBytes(tid) - before) / n;
+    }
+
+    @Test
+    void unknownMagicByte_isRejected() {
+        try (var deserializer = new OrderCreatedDeserializer(MockSchemaRegistry.getClientForScope(SCOPE), 4, List.of())) {
+            assertThatThrownBy(() -> deserializer.deserialize("orders.created", new byte[] {1, 0, 0, 0, 1, 2}))
+                    .isInstanceOf(SerializationException.class);
+        }
+    }
+
+    @Test
+    void resolverCache_isBounded_andEvictsLeastRecentlyUsed() throws Exception {
+        Schema v1 = parse("src/test/avro/v1/OrderCreated.avsc");
+        Schema v2 = parse("src/test/avro/v2/OrderCreated.avsc");
+        AvroResolverCache<GenericData.Record> cache = new AvroResolverCache<>(2, GenericDatumReader::new);
+
+        var v1v2 = cache.get(v1, v2);
+        cache.get(v2, v1);
+        cache.get(v1, v2);          // touch -> v2/v1 becomes eldest
+        cache.get(v2, v2);          // evicts v2/v1
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.get(v1, v2)).isSameAs(v1v2);
+        assertThat(cache.hits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClientFactory;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.example.avro.v2.OrderCreated;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@link OrderCreated} in the same Confluent wire format as {@code KafkaAvroSerializer}
+ * (TopicNameStrategy subject), but looks the schema id up once per topic and encodes into a
+ * thread-local buffer; the only per-record allocation is the returned {@code byte[]}.
+ */
+public class OrderCreatedSerializer implements Serializer<OrderCreated> {
+
+    private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
+
+    private final DatumWriter<OrderCreated> writer =
+            new SpecificDatumWriter<>(OrderCreated.getClassSchema(), SpecificData.getForClass(OrderCreated.class));
+    // OrderCreated always carries the same schema, so the subject (and id) only varies by topic
+    private final Map<String, Integer> idsByTopic = new ConcurrentHashMap<>();
+    private SchemaRegistryClient registry;
+    private boolean autoRegister = true;
+
+    public OrderCreatedSerializer() {}
+
+    OrderCreatedSerializer(SchemaRegistryClient registry) { this.registry = registry; }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object url = configs.get(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG);
+        if (url == null) throw new IllegalArgumentException("schema.registry.url is required");
+        this.registry = SchemaRegistryClientFactory.newClient(List.of(String.valueOf(url).split(",")),
+                AbstractKafkaSchemaSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT, List.of(new AvroSchemaProvider()), configs, Map.of());
+        Object auto = configs.get(AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS);
+        this.autoRegister = auto == null || Boolean.parseBoolean(String.valueOf(auto));
+    }
+
+    @Override
+    public byte[] serialize(String topic, OrderCreated data) {
+        if (data == null) return null;
+        int schemaId = schemaIdFor(topic);
+        Buffer buf = BUFFERS.get();
+        buf.reset();
+        try {
+            buf.write(ConfluentWire.MAGIC_BYTE);
+            buf.writeInt(schemaId);
+            buf.encoder = EncoderFactory.get().directBinaryEncoder(buf, buf.encoder);
+            writer.write(data, buf.encoder);
+            return buf.toByteArray();
+        } catch (Exception e) {
+            throw new SerializationException("Error serializing OrderCreated for id " + schemaId, e);
+        }
+    }
+
+    /** Registry id of the v2 OrderCreated schema under {@code <topic>-value}, looked up once per topic. */
+    int schemaIdFor(String topic) {
+        return idsByTopic.computeIfAbsent(topic, this::lookupSchemaId);
+    }
+
+    private int lookupSchemaId(String topic) {
+        String subject = topic + "-value";
+        AvroSchema schema = new AvroSchema(OrderCreated.getClassSchema());
+        try {
+            return autoRegister ? registry.register(subject, schema) : registry.getId(subject, schema);
+        } catch (Exception e) {
+            throw new SerializationException("Error registering Avro schema for subject " + subject, e);
+        }
+    }
+
+    /** Unsynchronized growable buffer; unlike ByteArrayOutputStream it is owned by a single thread. */
+    private static final class Buffer extends OutputStream {
+        byte[] bytes = new byte[256];
+        int count;
+        BinaryEncoder encoder;
+
+        void reset() { count = 0; }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        void writeInt(int v) {
+            ensure(4);
+            bytes[count++] = (byte) (v >>> 24);
+            bytes[count++] = (byte) (v >>> 16);
+            bytes[count++] = (byte) (v >>> 8);
+            bytes[count++] = (byte) v;
+        }
+
+        byte[] toByteArray() { return Arrays.copyOf(bytes, count); }
+
+        private void ensure(int n) {
+            if (count + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, count + n));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderCreatedSerializerIT {
+
+    private static final String SCOPE = "serializer-it";
+    private static final Map<String, Object> CONFIG = Map.of("schema.registry.url", "mock://" + SCOPE);
+
+    @AfterEach
+    void dropScope() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    private static OrderCreated event(String orderId, String promotionCode) {
+        return OrderCreated.newBuilder()
+                .setEventId("EVT-" + orderId).setOrderId(orderId).setCustomerId("C-7")
+                .setTotal(ByteBuffer.wrap(new BigDecimal("42.50").movePointRight(2).unscaledValue().toByteArray()))
+                .setTs(Instant.ofEpochMilli(1_700_000_000_000L)).setPromotionCode(promotionCode).build();
+    }
+
+    @Test
+    void producesSameWireFormatAsKafkaAvroSerializer() {
+        try (var confluent = new KafkaAvroSerializer(); var pooled = new OrderCreatedSerializer()) {
+            confluent.configure(CONFIG, false);
+            pooled.configure(CONFIG, false);
+
+            for (OrderCreated evt : List.of(event("ORD-1", null), event("ORD-2", "SAVE10"), event("ORD-3", null))) {
+                assertThat(pooled.serialize("orders.created", evt)).isEqualTo(confluent.serialize("orders.created", evt));
+            }
+        }
+    }
+
+    @Test
+    void roundTripsThroughOrderCreatedDeserializer_withoutSharingBuffers() {
+        try (var pooled = new OrderCreatedSerializer(); var deserializer = new OrderCreatedDeserializer()) {
+            pooled.configure(CONFIG, false);
+            deserializer.configure(CONFIG, false);
+
+            byte[] first = pooled.serialize("orders.created", event("ORD-10", "SAVE10"));
+            byte[] second = pooled.serialize("orders.created", event("ORD-11", null));
+
+            assertThat(ConfluentWire.schemaId(first)).isEqualTo(ConfluentWire.schemaId(second));
+            assertThat(deserializer.deserialize("orders.created", first).getOrderId().toString()).isEqualTo("ORD-10");
+            assertThat(deserializer.deserialize("orders.created", second).getPromotionCode()).isNull();
+        }
+    }
+}
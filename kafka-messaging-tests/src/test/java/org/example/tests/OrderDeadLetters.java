@@ -0,0 +1,49 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends an order straight to the DLQ with the same message and origin headers DeadLetterPublishingRecoverer
+ * would add. There is no exception, no stack trace and no error handler round trip. A projected record is
+ * forwarded as the bytes it was decoded from.
+ */
+final class OrderDeadLetters {
+
+    private final KafkaTemplate<Object, Object> dlq;
+    private final String dlqTopic;
+
+    OrderDeadLetters(KafkaTemplate<Object, Object> dlq, String dlqTopic) {
+        this.dlq = dlq;
+        this.dlqTopic = dlqTopic;
+    }
+
+    void send(ConsumerRecord<String, OrderCreated> rec, byte[] reason) {
+        var headers = new RecordHeaders(rec.headers().toArray());
+        byte[] original = takeOriginal(headers);
+        headers.add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, reason);
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, rec.topic().getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(rec.partition()).array());
+        headers.add(KafkaHeaders.DLT_ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(rec.offset()).array());
+        // A projected record (decode-mode=projection) lacks required fields and cannot be re-encoded
+        Object value = original != null ? original : rec.value();
+        // wait for the ack like the recoverer does, so the offset is only committed once the DLQ has it
+        dlq.send(new ProducerRecord<>(dlqTopic, rec.partition(), rec.key(), value, headers)).join();
+    }
+
+    /** Removes the wire bytes a projecting {@link OrderCreatedDeserializer} kept and returns them, or null. */
+    static byte[] takeOriginal(Headers headers) {
+        Header original = headers.lastHeader(OrderCreatedDeserializer.ORIGINAL_VALUE_HEADER);
+        headers.remove(OrderCreatedDeserializer.ORIGINAL_VALUE_HEADER);
+        return original == null ? null : original.value();
+    }
+}
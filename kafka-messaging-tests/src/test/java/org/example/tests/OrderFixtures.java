@@ -0,0 +1,27 @@
+package org.example.tests;
+
+import org.example.avro.v2.OrderCreated;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Valid v2 {@link OrderCreated} events for tests, with eventId {@code EVT-<orderId>} and no promotion code.
+ */
+final class OrderFixtures {
+
+    static final Instant TS = Instant.ofEpochMilli(1_700_000_000_000L);
+
+    private OrderFixtures() {}
+
+    /** An order of 25.00 at {@link #TS}. */
+    static OrderCreated order(String orderId, String customerId) {
+        return order(orderId, customerId, 2_500, TS);
+    }
+
+    static OrderCreated order(String orderId, String customerId, long cents, Instant ts) {
+        return new OrderCreated("EVT-" + orderId, orderId, customerId,
+                ByteBuffer.wrap(BigInteger.valueOf(cents).toByteArray()), ts, null);
+    }
+}
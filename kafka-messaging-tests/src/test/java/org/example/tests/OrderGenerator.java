@@ -0,0 +1,162 @@
+package org.example.tests;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Seeded synthetic {@code orders.created} traffic for the load suites: record keys and Confluent-framed v1 or v2
+ * {@code OrderCreated} values, ready for a {@code byte[]} producer. The same config and schema ids always give
+ * the same records, byte for byte.
+ * <p>
+ * Building and serializing an {@code OrderCreated} per record would make the generator the bottleneck, so
+ * {@code poolSize} payloads are encoded once: customers drawn uniformly or from Zipf, totals, promotion codes,
+ * and exactly the configured shares of v1 and invalid payloads (half negative totals, half missing
+ * {@code orderId}). A record is a copy of the next payload in the pool with a fresh fixed-width sequence number
+ * written into its {@code eventId} and {@code orderId}. A duplicate is a byte-identical re-send of one of the
+ * last {@value #RECENT} valid records. Event timestamps come from the pool and repeat with it.
+ * <p>
+ * Not thread-safe; give each thread its own generator and {@code idPrefix}.
+ */
+final class OrderGenerator {
+
+    enum KeyDistribution { UNIFORM, ZIPF }
+
+    enum Kind { V2, V1, DUPLICATE, NEGATIVE_TOTAL, MISSING_ORDER_ID }
+
+    record Order(byte[] key, byte[] value, Kind kind) {}
+
+    record Config(long seed, String idPrefix, int customers, KeyDistribution keys, double zipfExponent,
+                  double duplicateRate, double invalidRate, double v1Share, int poolSize) {
+        Config {
+            if (customers < 1) throw new IllegalArgumentException("customers must be positive: " + customers);
+            if (poolSize < 1) throw new IllegalArgumentException("pool size must be positive: " + poolSize);
+            for (double rate : new double[]{duplicateRate, invalidRate, v1Share}) {
+                if (rate < 0 || rate > 1) throw new IllegalArgumentException("rates and shares are within [0, 1]: " + rate);
+            }
+        }
+    }
+
+    static final int RECENT = 1024;
+    private static final int DIGITS = 12;
+    private static final long START_TS = 1_700_000_000_000L;
+
+    private final double duplicateRate;
+    private final SplittableRandom random;
+    private final byte[][] keys;
+    private final byte[][] values;
+    private final int[] eventIdAt;
+    private final int[] orderIdAt;   // -1 when the payload has no orderId
+    private final Kind[] kinds;
+    private final long[] recentSeq = new long[RECENT];
+    private final int[] recentPayload = new int[RECENT];
+    private final long[] counts = new long[Kind.values().length];
+    private long recent;
+    private long seq;
+
+    OrderGenerator(Config config, int v1SchemaId, int v2SchemaId) {
+        this.duplicateRate = config.duplicateRate();
+        int n = config.poolSize();
+        this.keys = new byte[n][];
+        this.values = new byte[n][];
+        this.eventIdAt = new int[n];
+        this.orderIdAt = new int[n];
+        this.kinds = new Kind[n];
+
+        // exact shares, in a seeded order
+        var shuffle = new SplittableRandom(config.seed());
+        int invalid = (int) Math.round(config.invalidRate() * n);
+        int v1 = (int) Math.round(config.v1Share() * (n - invalid));
+        for (int i = 0; i < n; i++) {
+            kinds[i] = i < invalid / 2 ? Kind.NEGATIVE_TOTAL : i < invalid ? Kind.MISSING_ORDER_ID : i < invalid + v1 ? Kind.V1 : Kind.V2;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = shuffle.nextInt(i + 1);
+            Kind k = kinds[i]; kinds[i] = kinds[j]; kinds[j] = k;
+        }
+
+        var zipf = config.keys() == KeyDistribution.ZIPF ? new ZipfSampler(config.customers(), config.zipfExponent(), config.seed()) : null;
+        var draw = new SplittableRandom(config.seed() + 1);
+        String zeros = "0".repeat(DIGITS);
+        for (int i = 0; i < n; i++) {
+            String customer = "C-" + (zipf != null ? zipf.next() : draw.nextInt(config.customers()));
+            long cents = 100 + draw.nextInt(200_000);
+            if (kinds[i] == Kind.NEGATIVE_TOTAL) cents = -cents;
+            String promo = kinds[i] != Kind.V1 && draw.nextInt(5) == 0 ? "PROMO-" + draw.nextInt(20) : null;
+            keys[i] = customer.getBytes(UTF_8);
+            encode(i, kinds[i] == Kind.V1 ? v1SchemaId : v2SchemaId, "EVT-" + config.idPrefix() + zeros,
+                    kinds[i] == Kind.MISSING_ORDER_ID ? "" : "ORD-" + config.idPrefix() + zeros,
+                    customer, cents, START_TS + i, kinds[i] != Kind.V1, promo);
+        }
+        this.random = new SplittableRandom(config.seed() + 2);
+    }
+
+    Order next() {
+        if (recent > 0 && duplicateRate > 0 && random.nextDouble() < duplicateRate) {
+            int r = random.nextInt((int) Math.min(recent, RECENT));
+            counts[Kind.DUPLICATE.ordinal()]++;
+            int p = recentPayload[r];
+            return new Order(keys[p], stamp(p, recentSeq[r]), Kind.DUPLICATE);
+        }
+        long s = seq++;
+        int p = (int) (s % values.length);
+        Kind kind = kinds[p];
+        counts[kind.ordinal()]++;
+        if (kind == Kind.V1 || kind == Kind.V2) {
+            int r = (int) (recent++ & (RECENT - 1));
+            recentSeq[r] = s;
+            recentPayload[r] = p;
+        }
+        return new Order(keys[p], stamp(p, s), kind);
+    }
+
+    /** Records of {@code kind} handed out so far. */
+    long count(Kind kind) { return counts[kind.ordinal()]; }
+
+    private byte[] stamp(int p, long s) {
+        byte[] value = Arrays.copyOf(values[p], values[p].length);
+        digits(value, eventIdAt[p], s);
+        if (orderIdAt[p] >= 0) digits(value, orderIdAt[p], s);
+        return value;
+    }
+
+    private static void digits(byte[] b, int at, long s) {
+        for (int i = at + DIGITS - 1; i >= at; i--) {
+            b[i] = (byte) ('0' + s % 10);
+            s /= 10;
+        }
+    }
+
+    // Field order of src/test/avro/v{1,2}/OrderCreated.avsc; v2 adds the promotionCode union
+    private void encode(int i, int schemaId, String eventId, String orderId, String customerId, long cents, long ts,
+                        boolean v2, String promo) {
+        try {
+            var out = new ByteArrayOutputStream(96);
+            out.write(ConfluentWire.header(schemaId));
+            BinaryEncoder enc = EncoderFactory.get().directBinaryEncoder(out, null);
+            enc.writeString(eventId);
+            eventIdAt[i] = out.size() - DIGITS;
+            enc.writeString(orderId);
+            orderIdAt[i] = orderId.isEmpty() ? -1 : out.size() - DIGITS;
+            enc.writeString(customerId);
+            enc.writeBytes(ByteBuffer.wrap(BigInteger.valueOf(cents).toByteArray()));
+            enc.writeLong(ts);
+            if (v2) {
+                enc.writeIndex(promo == null ? 0 : 1);
+                if (promo != null) enc.writeString(promo);
+            }
+            values[i] = out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
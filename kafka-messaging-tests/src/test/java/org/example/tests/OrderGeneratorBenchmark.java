@@ -0,0 +1,64 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records per second from one {@link OrderGenerator} (pre-encoded pool, Zipf keys, duplicates, invalid and v1
+ * payloads) against building and serializing each {@code OrderCreated}, as load tests did before.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=OrderGeneratorBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderGeneratorBenchmark {
+
+    private static final String SCOPE = "bench-generator";
+
+    @State(Scope.Thread)
+    public static class Generators {
+        @Param({"ZIPF", "UNIFORM"})
+        OrderGenerator.KeyDistribution keys;
+
+        OrderGenerator generator;
+        OrderCreatedSerializer serializer;
+        ZipfSampler zipf;
+        int next;
+
+        @Setup
+        public void setup() {
+            // schema ids only go into the framing here, nothing is decoded
+            generator = new OrderGenerator(new OrderGenerator.Config(7, "BENCH", 10_000, keys, 1.0, 0.01, 0.01, 0.2, 1 << 16), 1, 2);
+            serializer = new OrderCreatedSerializer();
+            serializer.configure(Map.of("schema.registry.url", "mock://" + SCOPE), false);
+            zipf = new ZipfSampler(10_000, 1.0, 7);
+        }
+
+        @TearDown
+        public void tearDown() { MockSchemaRegistry.dropScope(SCOPE); }
+    }
+
+    @Benchmark
+    public OrderGenerator.Order pool(Generators g) {
+        return g.generator.next();
+    }
+
+    @Benchmark
+    public byte[] builderAndSerializer(Generators g) {
+        int i = g.next++;
+        var evt = OrderCreated.newBuilder()
+                .setEventId("EVT-B" + i).setOrderId("ORD-B" + i).setCustomerId("C-" + g.zipf.next())
+                .setTotal(ByteBuffer.wrap(BigInteger.valueOf(2_500 + i % 1_000).toByteArray()))
+                .setTs(Instant.ofEpochMilli(1_700_000_000_000L + i)).build();
+        return g.serializer.serialize("orders.created", evt);
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.qameta.allure.AllureId;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.example.avro.v2.OrderCreated;
+import org.example.tests.OrderGenerator.Config;
+import org.example.tests.OrderGenerator.KeyDistribution;
+import org.example.tests.OrderGenerator.Kind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class OrderGeneratorIT {
+
+    private static final String SCOPE = "generator-it";
+
+    private SchemaRegistryClient registry;
+    private int v1Id;
+    private int v2Id;
+
+    @BeforeEach
+    void registerSchemas() throws Exception {
+        registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        v1Id = registry.register("orders.created-value", new AvroSchema(parse("src/test/avro/v1/OrderCreated.avsc")));
+        v2Id = registry.register("orders.created-value", new AvroSchema(parse("src/test/avro/v2/OrderCreated.avsc")));
+    }
+
+    @AfterEach
+    void dropScope() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    @Test @AllureId("IT-029")
+    void seededTraffic_isReproducible_withTheConfiguredMix() {
+        int n = 100_000;
+        var config = new Config(42, "GEN", 1_000, KeyDistribution.ZIPF, 1.0, 0.05, 0.02, 0.3, 1 << 14);
+        var generator = new OrderGenerator(config, v1Id, v2Id);
+        var again = new OrderGenerator(config, v1Id, v2Id);
+
+        Set<String> orderIds = new HashSet<>();
+        Map<String, Integer> perCustomer = new HashMap<>();
+        try (var deserializer = new OrderCreatedDeserializer(registry, 4, List.of())) {
+            for (int i = 0; i < n; i++) {
+                var order = generator.next();
+                assertThat(again.next().value()).isEqualTo(order.value());
+
+                OrderCreated evt = deserializer.deserialize("orders.created", order.value());
+                assertThat(evt.getCustomerId().toString()).isEqualTo(new String(order.key(), UTF_8));
+                TestApp.OrderValidation validation = TestApp.OrderValidation.of(evt);
+                switch (order.kind()) {
+                    case NEGATIVE_TOTAL -> assertThat(validation).isEqualTo(TestApp.OrderValidation.NEGATIVE_TOTAL);
+                    case MISSING_ORDER_ID -> assertThat(validation).isEqualTo(TestApp.OrderValidation.MISSING_ORDER_ID);
+                    case V1 -> assertThat(evt.getPromotionCode()).isNull();
+                    default -> assertThat(validation).isEqualTo(TestApp.OrderValidation.VALID);
+                }
+                if (order.kind() == Kind.V1 || order.kind() == Kind.V2) {
+                    assertThat(orderIds.add(evt.getOrderId().toString())).isTrue();
+                    assertThat(evt.getEventId().toString()).isEqualTo("EVT-" + evt.getOrderId().toString().substring(4));
+                } else if (order.kind() == Kind.DUPLICATE) {
+                    assertThat(orderIds).contains(evt.getOrderId().toString());
+                }
+                perCustomer.merge(evt.getCustomerId().toString(), 1, Integer::sum);
+            }
+        }
+
+        double fresh = n - generator.count(Kind.DUPLICATE);
+        assertThat(generator.count(Kind.DUPLICATE) / (double) n).isCloseTo(0.05, within(0.005));
+        assertThat((generator.count(Kind.NEGATIVE_TOTAL) + generator.count(Kind.MISSING_ORDER_ID)) / fresh).isCloseTo(0.02, within(0.002));
+        assertThat(generator.count(Kind.V1) / (double) (generator.count(Kind.V1) + generator.count(Kind.V2))).isCloseTo(0.3, within(0.01));
+        // Zipf(1.0) over 1000 customers: the top one has about 13% of the traffic, uniform would give it 0.1%
+        assertThat(perCustomer.get("C-0") / (double) n).isGreaterThan(0.1);
+
+        var uniform = new OrderGenerator(new Config(42, "GEN", 1_000, KeyDistribution.UNIFORM, 0, 0, 0, 0, 1 << 14), v1Id, v2Id);
+        Map<String, Integer> uniformPerCustomer = new HashMap<>();
+        for (int i = 0; i < n; i++) uniformPerCustomer.merge(new String(uniform.next().key(), UTF_8), 1, Integer::sum);
+        assertThat(uniformPerCustomer.values().stream().mapToInt(Integer::intValue).max().orElseThrow() / (double) n).isLessThan(0.01);
+        assertThat(uniform.count(Kind.V2)).isEqualTo(n);
+    }
+
+    @Test @AllureId("IT-030")
+    void payloadsAreStandardConfluentAvro_andDuplicatesAreByteIdentical() {
+        // records per second are measured by OrderGeneratorBenchmark (-P bench), not asserted here
+        var generator = new OrderGenerator(new Config(7, "GEN", 10_000, KeyDistribution.ZIPF, 1.0, 0.05, 0.02, 0.2, 1 << 10), v1Id, v2Id);
+        Set<String> sent = new HashSet<>();
+        try (var stock = new KafkaAvroDeserializer(registry)) {
+            for (int i = 0; i < 10_000; i++) {
+                var order = generator.next();
+                String bytes = Base64.getEncoder().encodeToString(order.value());
+                if (order.kind() == Kind.DUPLICATE) {
+                    assertThat(sent).contains(bytes);
+                    continue;
+                }
+                sent.add(bytes);
+                assertThat(ConfluentWire.schemaId(order.value())).isEqualTo(order.kind() == Kind.V1 ? v1Id : v2Id);
+                // read by Confluent's own deserializer with the writer schema, no resolution involved
+                var rec = (GenericRecord) stock.deserialize("orders.created", order.value());
+                assertThat(rec.get("customerId").toString()).isEqualTo(new String(order.key(), UTF_8));
+                assertThat(rec.getSchema().getField("promotionCode") == null).isEqualTo(order.kind() == Kind.V1);
+            }
+        }
+    }
+
+    private static Schema parse(String path) throws Exception {
+        return new Schema.Parser().parse(Files.readString(Path.of(path)));
+    }
+}
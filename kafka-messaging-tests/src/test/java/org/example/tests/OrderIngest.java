@@ -0,0 +1,79 @@
+package org.example.tests;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import org.example.avro.v2.OrderCreated;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Typed body for {@code POST /api/orders/typed}. Read token by token (no intermediate Map, no boxing,
+ * total taken straight from the number token) and validated into a {@link Validation} code instead of
+ * throwing.
+ */
+@JsonDeserialize(using = OrderIngest.Reader.class)
+final class OrderIngest {
+
+    enum Validation { OK, MISSING_ORDER_ID, MISSING_CUSTOMER_ID, INVALID_TOTAL }
+
+    // decimal(10,2) in the Avro schema
+    private static final int MAX_PRECISION = 10;
+    private static final int SCALE = 2;
+
+    String orderId;
+    String customerId;
+    BigDecimal total = BigDecimal.ZERO;
+    boolean totalIsNumber = true;
+
+    Validation validate() {
+        if (orderId == null || orderId.isBlank()) return Validation.MISSING_ORDER_ID;
+        if (customerId == null || customerId.isBlank()) return Validation.MISSING_CUSTOMER_ID;
+        if (!totalIsNumber || total.stripTrailingZeros().scale() > SCALE || total.precision() - total.scale() > MAX_PRECISION - SCALE) {
+            return Validation.INVALID_TOTAL;
+        }
+        return Validation.OK;
+    }
+
+    /** Only valid after {@link #validate()} returned OK. */
+    OrderCreated toEvent(Instant ts) {
+        ByteBuffer decimal = ByteBuffer.wrap(total.setScale(SCALE).unscaledValue().toByteArray());
+        return new OrderCreated("EVT-" + orderId, orderId, customerId, decimal, ts, null);
+    }
+
+    static final class Reader extends JsonDeserializer<OrderIngest> {
+        @Override
+        public OrderIngest deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            OrderIngest in = new OrderIngest();
+            if (p.currentToken() != JsonToken.START_OBJECT) {
+                return (OrderIngest) ctxt.handleUnexpectedToken(OrderIngest.class, p);
+            }
+            String field;
+            while ((field = p.nextFieldName()) != null) {
+                JsonToken value = p.nextToken();
+                switch (field) {
+                    case "orderId" -> in.orderId = text(p, value);
+                    case "customerId" -> in.customerId = text(p, value);
+                    case "total" -> {
+                        in.totalIsNumber = value.isNumeric();
+                        if (in.totalIsNumber) in.total = p.getDecimalValue(); else p.skipChildren();
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            return in;
+        }
+
+        // An object or array value is skipped whole, so its own fields are not read as the order's
+        private static String text(JsonParser p, JsonToken value) throws IOException {
+            if (value == JsonToken.VALUE_STRING) return p.getText();
+            p.skipChildren();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.tests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Request body -> OrderCreated: Map binding as in {@code OrdersController.create} vs. the streaming
+ * {@link OrderIngest} reader behind {@code /api/orders/typed}. HTTP-level numbers come from {@code OrderIngestLoadE2E}.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=OrderIngestBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderIngestBenchmark {
+
+    final ObjectMapper mapper = new ObjectMapper();
+    final byte[] body = "{\"orderId\":\"ORD-123\",\"customerId\":\"C-42\",\"total\":99.50}".getBytes(UTF_8);
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public OrderCreated mapPath() throws IOException {
+        Map<String, Object> map = mapper.readValue(body, Map.class);
+        String orderId = (String) map.get("orderId");
+        String customerId = (String) map.get("customerId");
+        if (!StringUtils.hasText(orderId) || !StringUtils.hasText(customerId)) return null;
+        BigDecimal total = new BigDecimal(String.valueOf(map.getOrDefault("total", 0)));
+        return OrderCreated.newBuilder()
+                .setEventId("EVT-" + orderId).setOrderId(orderId).setCustomerId(customerId)
+                .setTotal(ByteBuffer.wrap(total.movePointRight(2).unscaledValue().toByteArray()))
+                .setTs(Instant.now()).build();
+    }
+
+    @Benchmark
+    public OrderCreated typedPath() throws IOException {
+        OrderIngest in = mapper.readValue(body, OrderIngest.class);
+        return in.validate() == OrderIngest.Validation.OK ? in.toEvent(Instant.now()) : null;
+    }
+}
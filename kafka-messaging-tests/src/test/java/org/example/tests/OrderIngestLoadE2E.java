@@ -0,0 +1,75 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderIngestLoadE2E extends KafkaConfigTest {
+  @Autowired TestRestTemplate rest;
+  @Autowired JdbcTemplate jdbc;
+  @LocalServerPort int port;
+
+  @Test @AllureId("E2E-002")
+  void typedPath_persists_andRejectsInvalidWithoutErrors() {
+    var ok = rest.postForEntity("/api/orders/typed", Map.of("orderId", "ORD-T1", "customerId", "C-7", "total", 12.5), Void.class);
+    assertThat(ok.getStatusCode().value()).isEqualTo(202);
+
+    var missing = rest.postForEntity("/api/orders/typed", Map.of("customerId", "C-7", "total", 1), Void.class);
+    var tooPrecise = rest.postForEntity("/api/orders/typed", Map.of("orderId", "ORD-T2", "customerId", "C-7", "total", 1.005), Void.class);
+    assertThat(missing.getStatusCode().value()).isEqualTo(400);
+    assertThat(tooPrecise.getStatusCode().value()).isEqualTo(400);
+
+    org.awaitility.Awaitility.await().untilAsserted(() -> {
+      var total = jdbc.queryForObject("select total from orders where order_id='ORD-T1'", java.math.BigDecimal.class);
+      assertThat(total).isEqualByComparingTo("12.50");
+    });
+  }
+
+  @Test @AllureId("E2E-014")
+  void typedPath_rejectsObjectOrArrayFieldValues_withoutReadingTheirContents() {
+    var headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    for (String body : List.of(
+        "{\"orderId\":{\"orderId\":\"ORD-T3\",\"customerId\":\"C-7\",\"total\":1}}",
+        "{\"orderId\":\"ORD-T4\",\"customerId\":[\"C-7\"],\"total\":1}",
+        "{\"orderId\":\"ORD-T5\",\"customerId\":\"C-7\",\"total\":{\"orderId\":\"ORD-T6\"}}")) {
+      var resp = rest.postForEntity("/api/orders/typed", new HttpEntity<>(body, headers), Void.class);
+      assertThat(resp.getStatusCode().value()).as(body).isEqualTo(400);
+    }
+  }
+
+  @Test @AllureId("E2E-003")
+  void mapPath_vs_typedPath_underLoad() throws Exception {
+    int requests = Integer.getInteger("load.requests", 5_000);
+    int concurrency = Integer.getInteger("load.concurrency", 32);
+    List<byte[]> bodies = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      bodies.add(("{\"orderId\":\"ORD-L" + i + "\",\"customerId\":\"C-" + (i % 100) + "\",\"total\":" + (i % 1000) + ".25}").getBytes(UTF_8));
+    }
+    URI base = URI.create("http://localhost:" + port + "/api/orders");
+
+    // warm both paths before measuring
+    HttpLoadDriver.run("warmup map", base, "application/json", bodies.subList(0, 500), concurrency);
+    HttpLoadDriver.run("warmup typed", URI.create(base + "/typed"), "application/json", bodies.subList(0, 500), concurrency);
+
+    var map = HttpLoadDriver.run("Map<String,Object> path", base, "application/json", bodies, concurrency);
+    var typed = HttpLoadDriver.run("typed streaming path", URI.create(base + "/typed"), "application/json", bodies, concurrency);
+
+    assertThat(map.errors()).isZero();
+    assertThat(typed.errors()).isZero();
+  }
+}
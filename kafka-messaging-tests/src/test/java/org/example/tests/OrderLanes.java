@@ -0,0 +1,46 @@
+package org.example.tests;
+
+import org.example.avro.v2.OrderCreated;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * Ingest-side lane choice by order total: at or above {@code app.priority.threshold} an order goes to the
+ * priority topic, which has its own listener container with more consumers, so a backlog of small orders on
+ * {@code orders.created} does not hold it back. Totals are compared as unscaled cents, the way
+ * {@link OrderCreated#getTotal()} carries them, without building a {@code BigDecimal} per order.
+ */
+final class OrderLanes {
+
+    private final String ordersTopic;
+    private final String priorityTopic;
+    private final long thresholdCents;
+
+    OrderLanes(String ordersTopic, String priorityTopic, BigDecimal threshold) {
+        this.ordersTopic = ordersTopic;
+        this.priorityTopic = priorityTopic;
+        this.thresholdCents = threshold.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    String topicFor(OrderCreated evt) {
+        return topicFor(evt.getTotal());
+    }
+
+    /** {@code total}: big-endian two's-complement cents between position and limit (decimal, scale 2). */
+    String topicFor(ByteBuffer total) {
+        int n = total.remaining();
+        if (n == 0) return 0 >= thresholdCents ? priorityTopic : ordersTopic;
+        int pos = total.position();
+        // wider than a long: the sign alone decides
+        if (n > 8) return total.get(pos) >= 0 ? priorityTopic : ordersTopic;
+        long cents = total.get(pos);
+        for (int i = 1; i < n; i++) cents = (cents << 8) | (total.get(pos + i) & 0xff);
+        return cents >= thresholdCents ? priorityTopic : ordersTopic;
+    }
+
+    String ordersTopic() { return ordersTopic; }
+
+    String priorityTopic() { return priorityTopic; }
+}
@@ -0,0 +1,212 @@
+package org.example.tests;
+
+import org.apache.kafka.common.InvalidRecordException;
+import org.apache.kafka.common.errors.RecordBatchTooLargeException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.example.avro.v2.OrderCreated;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * How ingest puts orders on Kafka, with a local fallback: each order is sent on its {@link OrderLanes} topic as
+ * before, and one whose send fails or is not acked within {@code ackTimeout} is appended to the
+ * {@link OrderSpool} instead of being lost. While the spool holds anything, new orders go straight to it, behind
+ * the ones already waiting. A drainer thread replays the spool through {@link AvroPassThrough} (so the lane is
+ * chosen again) and acks each batch once the broker has it; the first successful batch is also the sign that
+ * the broker is back.
+ * <p>
+ * A send that timed out may still reach the broker after all, and a batch that failed half-way is replayed in
+ * full, so an order can be on the topic more than once. The listener's first-write-wins upsert on
+ * {@code order_id} stores it once.
+ * <p>
+ * {@link #publish} completes once the order is acked by the broker or appended to the spool, and fails only if
+ * it is neither, so ingest can tell the client. The drainer never dies: an entry the broker rejects for what it
+ * is (too large, not serializable) is skipped and counted in {@link #poisoned()} so it does not block the ones
+ * behind it; any other failure, including the schema registry or the spool itself, is retried after a pause.
+ */
+final class OrderPublisher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderPublisher.class);
+
+    private static final long DRAIN_WAIT_MS = 30_000;
+    private static final long RETRY_PAUSE_MS = 1_000;
+    private static final long IDLE_PAUSE_MS = 100;
+
+    private final KafkaTemplate<String, OrderCreated> kafka;
+    private final KafkaTemplate<String, byte[]> rawKafka;
+    private final AvroPassThrough passThrough;
+    private final OrderLanes lanes;
+    private final OrderSpool spool;
+    private final long ackTimeoutMs;
+    private final int drainBatch;
+    private final Thread drainer;
+    private final AtomicLong spooled = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong poisoned = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private volatile boolean spooling;
+    private volatile boolean running = true;
+
+    OrderPublisher(KafkaTemplate<String, OrderCreated> kafka, KafkaTemplate<String, byte[]> rawKafka,
+                   AvroPassThrough passThrough, OrderLanes lanes, OrderSpool spool, Duration ackTimeout, int drainBatch) {
+        this.kafka = kafka;
+        this.rawKafka = rawKafka;
+        this.passThrough = passThrough;
+        this.lanes = lanes;
+        this.spool = spool;
+        this.ackTimeoutMs = ackTimeout.toMillis();
+        this.drainBatch = drainBatch;
+        this.spooling = !spool.isEmpty();   // left over from before a restart
+        this.drainer = new Thread(this::drain, "orders-spool-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /** Completes once the order is acked or spooled; fails if it could be neither. */
+    CompletableFuture<Void> publish(OrderCreated event) {
+        if (spooling) return spool(() -> OrderSpool.encode(event));
+        return send(() -> kafka.send(lanes.topicFor(event), event.getCustomerId().toString(), event), () -> OrderSpool.encode(event));
+    }
+
+    /** As {@link #publish}; {@code null} if {@code body} is not a well-formed v2 OrderCreated. */
+    CompletableFuture<Void> publishAvro(byte[] body) {
+        var framed = passThrough.frame(body);
+        if (framed == null) return null;
+        if (spooling) return spool(() -> body);
+        return send(() -> rawKafka.send(framed.topic(), framed.key(), framed.value()), () -> body);
+    }
+
+    /** Orders that went to the spool rather than straight to Kafka. */
+    long spooled() { return spooled.get(); }
+
+    /** Spooled orders the broker has acked. */
+    long drained() { return drained.get(); }
+
+    /** Spooled orders the broker rejected for good and the drainer skipped. */
+    long poisoned() { return poisoned.get(); }
+
+    /** Orders that were neither acked nor spooled; their publish future failed. */
+    long lost() { return lost.get(); }
+
+    boolean isSpooling() { return spooling; }
+
+    private CompletableFuture<Void> send(Supplier<CompletableFuture<?>> send, Supplier<byte[]> body) {
+        CompletableFuture<?> sent;
+        try {
+            sent = send.get();
+        } catch (RuntimeException e) {
+            // the producer would not take it at all (closed, buffer exhausted); the spool can
+            return spool(body);
+        }
+        return sent.orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS)
+                .handle((r, ex) -> ex == null ? CompletableFuture.<Void>completedFuture(null) : spool(body))
+                .thenCompose(f -> f);
+    }
+
+    private CompletableFuture<Void> spool(Supplier<byte[]> body) {
+        try {
+            spool.append(body.get());
+        } catch (RuntimeException e) {
+            lost.incrementAndGet();
+            log.error("Order could be neither sent nor spooled", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        spooled.incrementAndGet();
+        spooling = true;
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                spool.force();
+                var batch = spool.read(drainBatch);
+                if (batch.bodies().isEmpty()) {
+                    if (spool.isEmpty()) spooling = false;
+                    Thread.sleep(IDLE_PAUSE_MS);
+                    continue;
+                }
+                List<CompletableFuture<?>> sends = new ArrayList<>(batch.bodies().size());
+                for (byte[] body : batch.bodies()) sends.add(resend(body));
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_WAIT_MS);
+                int rejected = 0;
+                boolean retry = false;
+                for (CompletableFuture<?> sent : sends) {
+                    try {
+                        sent.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (ExecutionException e) {
+                        if (isPoison(e.getCause())) rejected++;
+                        else retry = true;
+                    } catch (TimeoutException e) {
+                        retry = true;
+                        break;
+                    }
+                }
+                if (retry) {
+                    // broker still away: the batch stays at the cursor and is replayed in full
+                    Thread.sleep(RETRY_PAUSE_MS);
+                    continue;
+                }
+                spool.ack(batch);
+                drained.addAndGet(batch.bodies().size() - rejected);
+                if (rejected > 0) {
+                    poisoned.addAndGet(rejected);
+                    log.error("Skipped {} spooled orders the broker rejected", rejected);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // registry lookups while framing, spool I/O: nothing here is the entry's fault, so try again
+                log.warn("Spool drain failed, retrying", e);
+                try {
+                    Thread.sleep(RETRY_PAUSE_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Framing failures other than a malformed body propagate: they are the registry's, not the entry's
+    private CompletableFuture<?> resend(byte[] body) {
+        var framed = passThrough.frame(body);
+        if (framed == null) return CompletableFuture.failedFuture(new SerializationException("not a well-formed v2 OrderCreated"));
+        try {
+            return rawKafka.send(framed.topic(), framed.key(), framed.value());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Rejected for what the record is, so a retry would fail the same way
+    static boolean isPoison(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof RecordTooLargeException || t instanceof RecordBatchTooLargeException
+                    || t instanceof InvalidRecordException || t instanceof SerializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws Exception {
+        running = false;
+        drainer.interrupt();
+        drainer.join(DRAIN_WAIT_MS);
+        spool.close();
+    }
+}
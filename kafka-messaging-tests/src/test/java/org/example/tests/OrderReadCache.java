@@ -0,0 +1,52 @@
+package org.example.tests;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded cache behind {@code GET /api/orders/{orderId}}. Caffeine's size eviction is W-TinyLFU: a new entry
+ * only displaces the eviction victim if it has been seen more often, so a burst of one-off orders from the
+ * stream cannot flush the hot set.
+ * <p>
+ * The sink hands over every order once it is durable ({@link #onStored}), so reads of recent orders never reach
+ * Postgres. A miss loads from the table once and caches the row. Absent orders are not cached, because they may
+ * still arrive on the topic. Rows are never updated after the first write (the upsert is first-write-wins) and the
+ * sink passes the version the table kept, so a cached entry can't go stale and the stream only has to fill the
+ * cache, not invalidate it.
+ */
+final class OrderReadCache implements TestApp.OrderService.AfterStore {
+
+    private final JdbcTemplate jdbc;
+    private final Cache<String, OrderRow> cache;
+
+    OrderReadCache(JdbcTemplate jdbc, long maxSize) {
+        this.jdbc = jdbc;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /** The order, from the cache or else from Postgres; null if it has not been stored. */
+    OrderRow get(String orderId) {
+        return cache.get(orderId, id -> OrdersSchema.find(jdbc, id));
+    }
+
+    /** Sink hook: {@code row} is the version in the table, so it may replace whatever is cached. */
+    @Override
+    public CompletableFuture<?> onStored(OrderRow row) {
+        cache.put(row.orderId(), row);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /** Hits, misses and load time; a miss that finds the order costs one query, and so does one that doesn't. */
+    CacheStats stats() { return cache.stats(); }
+
+    boolean contains(String orderId) { return cache.getIfPresent(orderId) != null; }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.tests;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class OrderReadCacheE2E extends KafkaConfigTest {
+  private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+  @Autowired TestRestTemplate rest;
+  @Autowired JdbcTemplate jdbc;
+  @Autowired OrderReadCache orderReadCache;
+
+  @Test @AllureId("E2E-008")
+  void get_isServedFromTheStream_withoutQueryingPostgres() {
+    var created = rest.postForEntity("/api/orders", Map.of("orderId", "ORD-RC-LIVE", "customerId", "C-8", "total", 42.5), Void.class);
+    assertThat(created.getStatusCode().value()).isEqualTo(202);
+    await().until(() -> orderReadCache.contains("ORD-RC-LIVE"));
+
+    long loads = orderReadCache.stats().loadCount();
+    var found = rest.getForEntity("/api/orders/ORD-RC-LIVE", Map.class);
+    assertThat(found.getStatusCode().value()).isEqualTo(200);
+    assertThat(new BigDecimal(String.valueOf(found.getBody().get("total")))).isEqualByComparingTo("42.50");
+    assertThat(found.getBody().get("customerId")).isEqualTo("C-8");
+    assertThat(orderReadCache.stats().loadCount()).isEqualTo(loads);
+
+    assertThat(rest.getForEntity("/api/orders/ORD-RC-NONE", Map.class).getStatusCode().value()).isEqualTo(404);
+  }
+
+  // Orders arrive one by one and reads follow, Zipf(1.0) over age so the newest orders are the hottest. Both
+  // caches see the same traffic; only the stream-filled one is also told about each order as it is stored.
+  @Test @AllureId("E2E-009")
+  void skewedReads_hitRatioAndDbQueries_byCacheSize() {
+    int n = Integer.getInteger("cache.orders", 20_000);
+    int reads = Integer.getInteger("cache.reads", 100_000);
+    jdbc.update("INSERT INTO orders(order_id, event_id, customer_id, total, ts) "
+        + "SELECT 'ORD-RC-' || g, 'EVT-RC-' || g, 'C-' || (g % 500), (g % 1000) + 0.25, ?::timestamptz + g * interval '1 second' "
+        + "FROM generate_series(0, ?) g ON CONFLICT (order_id) DO NOTHING", java.sql.Timestamp.from(EPOCH), n - 1);
+    int[] traffic = traffic(n, reads);
+
+    var report = new StringBuilder(String.format("%-8s %-13s %9s %10s %12s %12s%n",
+        "size", "fill", "hit ratio", "db queries", "db saved %", "avg load us"));
+    for (int size : List.of(n / 100, n / 20, n / 10)) {
+      var readThrough = replay(new OrderReadCache(jdbc, size), false, traffic);
+      var filled = replay(new OrderReadCache(jdbc, size), true, traffic);
+
+      for (var stats : List.of(Map.entry("read-through", readThrough), Map.entry("stream", filled))) {
+        var s = stats.getValue();
+        report.append(String.format("%-8d %-13s %9.3f %10d %12.1f %12.0f%n", size, stats.getKey(), s.hitRate(),
+            s.loadCount(), 100.0 * (reads - s.loadCount()) / reads, s.averageLoadPenalty() / 1_000));
+      }
+      assertThat(filled.hitRate()).isGreaterThanOrEqualTo(readThrough.hitRate());
+    }
+
+    Allure.addAttachment("order read cache", "text/plain", report.toString());
+  }
+
+  // -(i + 1) stores order i, anything else reads that order; a read only asks for an order that has arrived
+  private static int[] traffic(int n, int reads) {
+    var zipf = new ZipfSampler(n, 1.0, 42);
+    int[] traffic = new int[n + reads];
+    int t = 0;
+    for (int i = 0; i < n; i++) {
+      traffic[t++] = -(i + 1);
+      for (long r = (long) i * reads / n; r < (long) (i + 1) * reads / n; r++) traffic[t++] = i - zipf.next() % (i + 1);
+    }
+    return traffic;
+  }
+
+  private static CacheStats replay(OrderReadCache cache, boolean streamFilled, int[] traffic) {
+    for (int op : traffic) {
+      if (op < 0) {
+        if (streamFilled) cache.onStored(row(-op - 1));
+      } else {
+        assertThat(cache.get("ORD-RC-" + op)).isNotNull();
+      }
+    }
+    return cache.stats();
+  }
+
+  private static OrderRow row(int i) {
+    return new OrderRow("ORD-RC-" + i, "EVT-RC-" + i, "C-" + (i % 500),
+        BigDecimal.valueOf(i % 1000).add(new BigDecimal("0.25")), EPOCH.plusSeconds(i), null);
+  }
+}
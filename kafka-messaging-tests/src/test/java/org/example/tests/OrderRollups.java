@@ -0,0 +1,112 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.kstream.Window;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+import org.apache.kafka.streams.state.WindowStore;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import java.time.Duration;
+
+/**
+ * Order count and revenue per 1-minute tumbling and 5-minute hopping (1-minute advance) window of
+ * {@code OrderCreated.ts}, for dashboards that used to poll Postgres. Active with {@code app.rollups.enabled=true}.
+ * <p>
+ * Events may arrive up to {@code app.rollups.grace} late and still count. Emission is suppressed until a window
+ * closes (end + grace in stream time), so each window is written exactly once, as its final value. Later events
+ * for a closed window are dropped. Results go to the compacted {@code app.topics.rollups} topic, keyed
+ * {@code <1m|5m>@<window start>}, as a small JSON object. A dashboard reads the topic from the start and keeps
+ * the latest value per key.
+ * <p>
+ * Every order maps to one key, so the aggregation runs in a single task. The repartition hop carries only the
+ * cents, which keeps that cheap.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.rollups.enabled", havingValue = "true")
+public class OrderRollups {
+
+    private static final String ALL = "all";
+
+    /** Windows on the event's own timestamp; the record timestamp is only the fallback for undecodable values. */
+    static final class EventTime implements TimestampExtractor {
+        @Override
+        public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+            return record.value() instanceof OrderCreated evt && evt.getTs() != null ? evt.getTs().toEpochMilli() : record.timestamp();
+        }
+    }
+
+    static Topology topology(String ordersTopic, String rollupTopic, Serde<OrderCreated> orders, Duration grace) {
+        var builder = new StreamsBuilder();
+        KGroupedStream<String, Long> all = builder.stream(ordersTopic, Consumed.with(Serdes.String(), orders).withTimestampExtractor(new EventTime()))
+                .filter((key, evt) -> evt != null && TestApp.OrderValidation.of(evt) == TestApp.OrderValidation.VALID)
+                .map((key, evt) -> KeyValue.pair(ALL, CustomerTotals.cents(evt.getTotal())))
+                .groupByKey(Grouped.with("rollup-all", Serdes.String(), Serdes.Long()));
+        rollup(all, "1m", TimeWindows.ofSizeAndGrace(Duration.ofMinutes(1), grace), rollupTopic);
+        rollup(all, "5m", TimeWindows.ofSizeAndGrace(Duration.ofMinutes(5), grace).advanceBy(Duration.ofMinutes(1)), rollupTopic);
+        return builder.build();
+    }
+
+    private static void rollup(KGroupedStream<String, Long> all, String name, TimeWindows windows, String rollupTopic) {
+        all.windowedBy(windows)
+                .aggregate(() -> CustomerTotals.Total.ZERO, (key, cents, total) -> total.plus(cents),
+                        Materialized.<String, CustomerTotals.Total, WindowStore<Bytes, byte[]>>as("rollup-" + name)
+                                .withKeySerde(Serdes.String()).withValueSerde(CustomerTotals.TOTAL_SERDE))
+                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()).withName("rollup-" + name + "-final"))
+                .toStream()
+                .map((window, total) -> KeyValue.pair(key(name, window.window()), json(name, window.window(), total)))
+                .to(rollupTopic, Produced.with(Serdes.String(), Serdes.String()));
+    }
+
+    static String key(String name, Window window) { return name + "@" + window.startTime(); }
+
+    static String json(String name, Window window, CustomerTotals.Total total) {
+        return String.format("{\"window\":\"%s\",\"start\":\"%s\",\"end\":\"%s\",\"orders\":%d,\"revenue\":%s}",
+                name, window.startTime(), window.endTime(), total.orders(), total.amount().toPlainString());
+    }
+
+    // One partition: dashboards read the whole topic, and compaction keeps it at one record per window
+    @Bean NewTopic rollupsTopic(@Value("${app.topics.rollups:orders.rollups}") String rollupTopic) {
+        return TopicBuilder.name(rollupTopic).partitions(1).replicas(1).compact().build();
+    }
+
+    @Bean(destroyMethod = "close")
+    KafkaStreams orderRollupsStreams(@Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+                                     @Value("${schema.registry.url}") String schemaRegistryUrl,
+                                     @Value("${app.topics.orders}") String ordersTopic,
+                                     @Value("${app.topics.rollups:orders.rollups}") String rollupTopic,
+                                     @Value("${app.rollups.grace:30s}") Duration grace,
+                                     @Value("${app.rollups.application-id:orders-rollups}") String applicationId,
+                                     @Value("${app.streams.state-dir:${java.io.tmpdir}/kafka-streams}") String stateDir) {
+        // logs and skips records that do not decode, like the totals topology
+        var props = CustomerTotals.config(applicationId, bootstrapServers, stateDir);
+        return new KafkaStreams(topology(ordersTopic, rollupTopic, CustomerTotals.orderSerde(schemaRegistryUrl), grace), props);
+    }
+
+    // Started once KafkaAdmin has created the compacted topic; auto-creation would make an uncompacted one
+    @Bean ApplicationListener<ApplicationReadyEvent> startOrderRollups(@Qualifier("orderRollupsStreams") KafkaStreams streams) {
+        return event -> streams.start();
+    }
+}
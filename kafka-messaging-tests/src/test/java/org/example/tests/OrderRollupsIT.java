@@ -0,0 +1,115 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderRollupsIT {
+
+    private static final String SCOPE = "order-rollups-it";
+    private static final String TOPIC = "orders.created";
+    private static final String ROLLUPS = "orders.rollups";
+    private static final Instant T0 = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir Path stateDir;
+
+    @AfterEach
+    void dropScope() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    private static OrderCreated order(String orderId, String total, Instant ts) {
+        return OrderCreated.newBuilder()
+                .setEventId("EVT-" + orderId).setOrderId(orderId).setCustomerId("C-1")
+                .setTotal(ByteBuffer.wrap(new BigDecimal(total).movePointRight(2).unscaledValue().toByteArray()))
+                .setTs(ts).build();
+    }
+
+    @Test @AllureId("IT-016")
+    void emitsEachWindowOnce_afterGrace_countingLateEventsWithinIt() {
+        try (var serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+             var driver = new TopologyTestDriver(OrderRollups.topology(TOPIC, ROLLUPS, serde, Duration.ofSeconds(30)),
+                     CustomerTotalsIT.driverProps(stateDir))) {
+            TestInputTopic<String, OrderCreated> in = driver.createInputTopic(TOPIC, new StringSerializer(), serde.serializer());
+            TestOutputTopic<String, String> out = driver.createOutputTopic(ROLLUPS, new StringDeserializer(), new StringDeserializer());
+
+            in.pipeInput("C-1", order("ORD-1", "10.00", T0.plusSeconds(10)));
+            in.pipeInput("C-1", order("ORD-2", "20.00", T0.plusSeconds(50)));
+            in.pipeInput("C-1", order("ORD-3", "-5.00", T0.plusSeconds(55)));       // invalid, not counted
+            in.pipeInput("C-1", order("ORD-4", "1.00", T0.plusSeconds(65)));
+            in.pipeInput("C-1", order("ORD-5", "0.50", T0.plusSeconds(40)));        // late, within grace
+            assertThat(out.isEmpty()).as("nothing before [00:00, 00:01) + 30s grace has passed").isTrue();
+
+            in.pipeInput("C-1", order("ORD-6", "2.00", T0.plusSeconds(91)));        // stream time past 00:01:30
+            in.pipeInput("C-1", order("ORD-7", "99.00", T0.plusSeconds(30)));       // after the window closed: dropped
+
+            List<KeyValue<String, String>> emitted = out.readKeyValuesToList();
+            Map<String, String> byKey = emitted.stream().collect(java.util.stream.Collectors.toMap(kv -> kv.key, kv -> kv.value));
+            assertThat(emitted).hasSameSizeAs(byKey.keySet());   // one final value per window, no updates
+
+            assertThat(byKey.get("1m@2024-01-01T00:00:00Z"))
+                    .isEqualTo("{\"window\":\"1m\",\"start\":\"2024-01-01T00:00:00Z\",\"end\":\"2024-01-01T00:01:00Z\",\"orders\":3,\"revenue\":30.50}");
+            // the hopping windows ending at 00:01 also closed; the earliest one holds the same three orders
+            assertThat(byKey.get("5m@2023-12-31T23:56:00Z")).contains("\"orders\":3", "\"revenue\":30.50");
+            assertThat(byKey).doesNotContainKey("1m@2024-01-01T00:01:00Z");
+        }
+    }
+
+    @Test @AllureId("IT-017")
+    void hoppingWindow_countsEachOrderInFiveWindows() {
+        try (var serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+             var driver = new TopologyTestDriver(OrderRollups.topology(TOPIC, ROLLUPS, serde, Duration.ZERO),
+                     CustomerTotalsIT.driverProps(stateDir))) {
+            TestInputTopic<String, OrderCreated> in = driver.createInputTopic(TOPIC, new StringSerializer(), serde.serializer());
+            TestOutputTopic<String, String> out = driver.createOutputTopic(ROLLUPS, new StringDeserializer(), new StringDeserializer());
+
+            in.pipeInput("C-1", order("ORD-1", "4.00", T0.plusSeconds(30)));
+            in.pipeInput("C-1", order("ORD-2", "0.01", T0.plus(Duration.ofMinutes(10))));   // closes every window of ORD-1
+
+            List<String> fiveMinute = out.readKeyValuesToList().stream()
+                    .filter(kv -> kv.key.startsWith("5m@") && kv.value.contains("\"orders\":1,\"revenue\":4.00"))
+                    .map(kv -> kv.key).toList();
+            assertThat(fiveMinute).containsExactlyInAnyOrder(
+                    "5m@2023-12-31T23:56:00Z", "5m@2023-12-31T23:57:00Z", "5m@2023-12-31T23:58:00Z",
+                    "5m@2023-12-31T23:59:00Z", "5m@2024-01-01T00:00:00Z");
+        }
+    }
+
+    @Test @AllureId("IT-038")
+    void undecodableRecord_isSkipped_andTheWindowStillCloses() {
+        try (var serde = CustomerTotals.orderSerde("mock://" + SCOPE);
+             var driver = new TopologyTestDriver(OrderRollups.topology(TOPIC, ROLLUPS, serde, Duration.ZERO),
+                     CustomerTotalsIT.driverProps(stateDir))) {
+            TestInputTopic<String, byte[]> in = driver.createInputTopic(TOPIC, new StringSerializer(), new ByteArraySerializer());
+            TestOutputTopic<String, String> out = driver.createOutputTopic(ROLLUPS, new StringDeserializer(), new StringDeserializer());
+            var v2 = serde.serializer();
+
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("ORD-1", "1.00", T0.plusSeconds(10))));
+            in.pipeInput("C-1", "not avro at all".getBytes(StandardCharsets.UTF_8));
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("ORD-2", "2.00", T0.plusSeconds(20))));
+            in.pipeInput("C-1", v2.serialize(TOPIC, order("ORD-3", "0.01", T0.plusSeconds(70))));   // closes [00:00, 00:01)
+
+            assertThat(out.readKeyValuesToMap()).containsEntry("1m@2024-01-01T00:00:00Z",
+                    "{\"window\":\"1m\",\"start\":\"2024-01-01T00:00:00Z\",\"end\":\"2024-01-01T00:01:00Z\",\"orders\":2,\"revenue\":3.00}");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.tests;
+
+import org.example.avro.v2.OrderCreated;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * One row of {@link OrdersSchema}, copied out of the event. Sinks that keep orders past the listener call must
+ * not hold on to a possibly reused {@link OrderCreated}.
+ */
+record OrderRow(String orderId, String eventId, String customerId, BigDecimal total, Instant ts, String promotionCode) {
+
+    static OrderRow of(OrderCreated evt) {
+        return new OrderRow(str(evt.getOrderId()), str(evt.getEventId()), str(evt.getCustomerId()),
+                TestApp.total(evt.getTotal()), evt.getTs(), str(evt.getPromotionCode()));
+    }
+
+    /** Reads the {@link OrdersSchema} columns, selected in {@link #args()} order. */
+    static OrderRow from(ResultSet rs) throws SQLException {
+        Timestamp ts = rs.getTimestamp(5);
+        return new OrderRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getBigDecimal(4),
+                ts == null ? null : ts.toInstant(), rs.getString(6));
+    }
+
+    /** The event again, e.g. to republish the stored version; the total is encoded at the table's scale of 2. */
+    OrderCreated toEvent() {
+        return new OrderCreated(eventId, orderId, customerId,
+                ByteBuffer.wrap(total.setScale(2).unscaledValue().toByteArray()), ts, promotionCode);
+    }
+
+    /** Bind values in {@link OrdersSchema#UPSERT} column order. */
+    Object[] args() {
+        return new Object[]{orderId, eventId, customerId, total, ts == null ? null : Timestamp.from(ts), promotionCode};
+    }
+
+    private static String str(CharSequence s) { return s == null ? null : s.toString(); }
+}
@@ -0,0 +1,66 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The OrdersController send path (build the event from the request, then serialize the value):
+ * KafkaAvroSerializer vs. OrderCreatedSerializer. Allocation rates come from the profile's {@code -prof gc}.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=OrderSerializerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class OrderSerializerBenchmark {
+
+    private static final String SCOPE = "bench-serializer";
+
+    final Map<String, Object> body = Map.of("orderId", "ORD-123", "customerId", "C-42", "total", 99.50);
+    KafkaAvroSerializer confluent;
+    OrderCreatedSerializer pooled;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> config = Map.of("schema.registry.url", "mock://" + SCOPE);
+        confluent = new KafkaAvroSerializer();
+        confluent.configure(config, false);
+        pooled = new OrderCreatedSerializer();
+        pooled.configure(config, false);
+    }
+
+    @TearDown
+    public void tearDown() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    // same steps as OrdersController.create
+    private OrderCreated event() {
+        String orderId = (String) body.get("orderId");
+        String customerId = (String) body.get("customerId");
+        BigDecimal total = new BigDecimal(String.valueOf(body.getOrDefault("total", 0)));
+        return OrderCreated.newBuilder()
+                .setEventId("EVT-" + orderId).setOrderId(orderId).setCustomerId(customerId)
+                .setTotal(ByteBuffer.wrap(total.movePointRight(2).unscaledValue().toByteArray()))
+                .setTs(Instant.now()).build();
+    }
+
+    @Benchmark
+    public byte[] kafkaAvroSerializer() {
+        return confluent.serialize("orders.created", event());
+    }
+
+    @Benchmark
+    public byte[] schemaIdCachingSerializer() {
+        return pooled.serialize("orders.created", event());
+    }
+}
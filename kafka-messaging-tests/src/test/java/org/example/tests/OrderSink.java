@@ -0,0 +1,27 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.kafka.support.Acknowledgment;
+
+/** Where {@code OrderService} puts validated orders ({@code app.sink.mode}). */
+interface OrderSink extends AutoCloseable {
+
+    /**
+     * Stores one order. {@code rec} is only for dead-lettering a row the database rejects.
+     * <p>
+     * Once the row is durable, the sink passes the version the table kept to {@code stored}: {@code row} if it was
+     * inserted, else the row already there (first write wins). A dead-lettered row is not passed on.
+     * <p>
+     * A sink that acks asynchronously acknowledges {@code ack} only once the row is durable. Any other sink has
+     * made the row durable when this returns and acknowledges {@code ack} if one is given, so the container's
+     * commit policy applies.
+     */
+    void write(ConsumerRecord<String, OrderCreated> rec, OrderRow row, Acknowledgment ack, TestApp.OrderService.AfterStore stored);
+
+    /** True if {@link #write} returns before the row is durable; the container must then use MANUAL async acks. */
+    default boolean acksAsynchronously() { return false; }
+
+    @Override
+    default void close() {}
+}
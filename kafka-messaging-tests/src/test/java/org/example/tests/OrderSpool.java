@@ -0,0 +1,215 @@
+package org.example.tests;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.example.avro.v2.OrderCreated;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only spool of raw v2 {@link OrderCreated} bodies for when the broker is unreachable. It is kept in
+ * memory-mapped segment files of {@code segmentSize} bytes under one directory. Each entry is a length, a CRC32C
+ * and the body. The length is written last, so a non-zero length marks a complete entry. Zero-filled space past
+ * the last entry is the end of the spool.
+ * <p>
+ * Entries are read in batches from the drain cursor and only {@link #ack acknowledged} once they are on the
+ * broker. A batch that was not acked is read again, and a segment is deleted once it is drained and no longer
+ * the one being appended to. The cursor itself is not persisted: after a restart the oldest remaining segment
+ * is drained again from its start. Consumers absorb that, like any redelivery, through the first-write-wins
+ * upsert on {@code order_id}.
+ * <p>
+ * Appends go to the page cache and survive a process crash at once; {@link #force} flushes them to the device.
+ * On reopening, a torn last entry (bad length or CRC) is treated as the end of its segment. The directory is
+ * locked, so two processes never append to one spool.
+ */
+final class OrderSpool implements AutoCloseable {
+
+    private static final int HEADER = 8;   // int length, int crc32c
+    private static final String SUFFIX = ".spool";
+
+    record Batch(List<byte[]> bodies, Segment segment, int end) {}
+
+    static final class Segment {
+        final long index;
+        final Path path;
+        final MappedByteBuffer buf;
+        int writePos;
+
+        Segment(long index, Path path, MappedByteBuffer buf) {
+            this.index = index; this.path = path; this.buf = buf;
+        }
+    }
+
+    private final Path dir;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Deque<Segment> segments = new ArrayDeque<>();   // oldest first; the last one takes appends
+    private int readPos;                                          // in the oldest segment
+    private long pending;
+    private boolean dirty;
+
+    OrderSpool(Path dir, int segmentSize) throws IOException {
+        if (segmentSize < 4 * 1024) throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        this.dir = Files.createDirectories(dir);
+        this.segmentSize = segmentSize;
+        this.lockChannel = FileChannel.open(dir.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock held;
+        try {
+            held = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            held = null;
+        }
+        if (held == null) {
+            lockChannel.close();
+            throw new IllegalStateException("spool directory is in use: " + dir);
+        }
+        this.lock = held;
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                String name = p.getFileName().toString();
+                Segment s = map(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), p);
+                s.writePos = recover(s.buf);
+                pending += count(s.buf, 0, s.writePos);
+                segments.add(s);
+            }
+        }
+        if (segments.isEmpty()) segments.add(map(0, segmentPath(0)));
+    }
+
+    /** The raw Avro binary of {@code evt}, as {@link AvroPassThrough} expects it. */
+    static byte[] encode(OrderCreated evt) {
+        try {
+            var out = new ByteArrayOutputStream(128);
+            BinaryEncoder enc = EncoderFactory.get().directBinaryEncoder(out, null);
+            new SpecificDatumWriter<>(OrderCreated.class).write(evt, enc);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized void append(byte[] body) {
+        if (body.length == 0) throw new IllegalArgumentException("empty entry");
+        int needed = HEADER + body.length;
+        if (needed > segmentSize) throw new IllegalArgumentException("entry larger than a segment: " + body.length);
+        Segment s = segments.getLast();
+        if (s.writePos + needed > segmentSize) {
+            s = map(s.index + 1, segmentPath(s.index + 1));
+            segments.add(s);
+        }
+        var crc = new CRC32C();
+        crc.update(body);
+        s.buf.put(s.writePos + HEADER, body);
+        s.buf.putInt(s.writePos + 4, (int) crc.getValue());
+        s.buf.putInt(s.writePos, body.length);
+        s.writePos += needed;
+        pending++;
+        dirty = true;
+    }
+
+    /** Up to {@code max} entries from the drain cursor, all from one segment; empty if nothing is pending. */
+    synchronized Batch read(int max) {
+        while (segments.size() > 1 && readPos >= segments.getFirst().writePos) dropOldest();
+        Segment s = segments.getFirst();
+        List<byte[]> bodies = new ArrayList<>(Math.min(max, 1024));
+        int pos = readPos;
+        while (bodies.size() < max && pos < s.writePos) {
+            int len = s.buf.getInt(pos);
+            byte[] body = new byte[len];
+            s.buf.get(pos + HEADER, body);
+            bodies.add(body);
+            pos += HEADER + len;
+        }
+        return new Batch(bodies, s, pos);
+    }
+
+    /** Moves the drain cursor past {@code batch}; a fully drained older segment is deleted. */
+    synchronized void ack(Batch batch) {
+        if (segments.getFirst() != batch.segment() || batch.end() <= readPos) return;   // already acked
+        readPos = batch.end();
+        pending -= batch.bodies().size();
+        if (segments.size() > 1 && readPos >= batch.segment().writePos) dropOldest();
+    }
+
+    synchronized long pending() { return pending; }
+
+    synchronized boolean isEmpty() { return pending == 0; }
+
+    synchronized int segmentCount() { return segments.size(); }
+
+    /** Flushes appended entries to the device; cheap when nothing was appended since the last call. */
+    synchronized void force() {
+        if (!dirty) return;
+        for (Segment s : segments) s.buf.force();
+        dirty = false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private void dropOldest() {
+        Segment s = segments.removeFirst();
+        readPos = 0;
+        try {
+            Files.deleteIfExists(s.path);   // the mapping stays valid until the buffer is collected
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("%020d%s", index, SUFFIX));
+    }
+
+    private Segment map(long index, Path path) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new Segment(index, path, ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // End of the last complete entry
+    private static int recover(MappedByteBuffer buf) {
+        int pos = 0;
+        while (pos + HEADER <= buf.capacity()) {
+            int len = buf.getInt(pos);
+            if (len <= 0 || len > buf.capacity() - pos - HEADER) break;
+            byte[] body = new byte[len];
+            buf.get(pos + HEADER, body);
+            var crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != buf.getInt(pos + 4)) break;
+            pos += HEADER + len;
+        }
+        return pos;
+    }
+
+    private static long count(MappedByteBuffer buf, int from, int to) {
+        long n = 0;
+        for (int pos = from; pos < to; pos += HEADER + buf.getInt(pos)) n++;
+        return n;
+    }
+}
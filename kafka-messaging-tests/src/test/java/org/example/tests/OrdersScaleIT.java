@@ -0,0 +1,132 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert and lookup latency of {@link OrdersSchema} as the table grows. Rows are generated server-side into a
+ * separate {@code orders_scale} table, one level at a time, with {@code ts} rising with the row number as live
+ * traffic would. The default run stops at 1M rows; the full curve is
+ * {@code -Dscale.rows=1000000,10000000,100000000} (about 20 GB of disk at 100M).
+ */
+public class OrdersScaleIT extends KafkaConfigTest {
+
+    private static final String TABLE = "orders_scale";
+    private static final int SAMPLES = 500;
+    private static final int CHUNK = 1_000_000;
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-013")
+    void insertAndLookupLatency_acrossTableSizes() {
+        List<Long> levels = Arrays.stream(System.getProperty("scale.rows", "1000000").split(","))
+                .map(String::trim).map(Long::parseLong).sorted().toList();
+        jdbc.execute("DROP TABLE IF EXISTS " + TABLE + " CASCADE");
+        var schema = new OrdersSchema(jdbc, TABLE, 16);
+        schema.apply();
+
+        var report = new StringBuilder(String.format("%-12s %10s %10s %10s %10s %12s%n",
+                "rows", "ins p50 us", "ins p99 us", "get p50 us", "get p99 us", "window ms"));
+        try {
+            long rows = 0;
+            for (long level : levels) {
+                rows = fill(rows, level);
+                jdbc.execute("ANALYZE " + TABLE);
+
+                long[] inserts = new long[SAMPLES];
+                for (int i = 0; i < SAMPLES; i++) {
+                    long id = rows + i + 1;
+                    long start = System.nanoTime();
+                    jdbc.update(schema.upsertSql(), "ORD-SCALE-" + id, "EVT-" + id, "CUST-" + id % 10_000,
+                            BigDecimal.valueOf(id % 100_000, 2), Timestamp.from(EPOCH.plusSeconds(id)), null);
+                    inserts[i] = System.nanoTime() - start;
+                }
+                rows += SAMPLES;
+
+                long[] lookups = new long[SAMPLES];
+                for (int i = 0; i < SAMPLES; i++) {
+                    String orderId = "ORD-SCALE-" + ThreadLocalRandom.current().nextLong(1, rows + 1);
+                    long start = System.nanoTime();
+                    jdbc.queryForObject("select total from " + TABLE + " where order_id = ?", BigDecimal.class, orderId);
+                    lookups[i] = System.nanoTime() - start;
+                }
+
+                // last hour of event time: answered from the BRIN index on ts
+                Timestamp to = Timestamp.from(EPOCH.plusSeconds(rows)), from = Timestamp.from(EPOCH.plusSeconds(rows - 3_600));
+                long start = System.nanoTime();
+                Integer inWindow = jdbc.queryForObject("select count(*) from " + TABLE + " where ts > ? and ts <= ?",
+                        Integer.class, from, to);
+                long window = System.nanoTime() - start;
+                assertThat(inWindow).isEqualTo((int) Math.min(rows, 3_600));
+
+                report.append(String.format("%-12d %10d %10d %10d %10d %12.1f%n", rows,
+                        percentile(inserts, 50) / 1_000, percentile(inserts, 99) / 1_000,
+                        percentile(lookups, 50) / 1_000, percentile(lookups, 99) / 1_000, window / 1e6));
+            }
+
+            // a point lookup touches exactly one hash partition
+            List<String> plan = jdbc.queryForList("EXPLAIN select total from " + TABLE + " where order_id = 'ORD-SCALE-1'", String.class);
+            assertThat(plan.stream().filter(line -> line.contains(TABLE + "_p")).count()).isEqualTo(1);
+            report.append(String.format("%nlookup plan:%n%s%n", String.join(System.lineSeparator(), plan)));
+        } finally {
+            jdbc.execute("DROP TABLE IF EXISTS " + TABLE + " CASCADE");
+        }
+
+        Allure.addAttachment("orders table scaling", "text/plain", report.toString());
+    }
+
+    @Test @AllureId("IT-035")
+    void legacyTable_migrates_andSetsAsideTotalsTheNewColumnCannotHold() {
+        String legacy = "orders_legacy_it";
+        jdbc.execute("DROP TABLE IF EXISTS " + legacy + " CASCADE");
+        jdbc.execute("DROP TABLE IF EXISTS " + legacy + "_unmigrated");
+        jdbc.execute("CREATE TABLE " + legacy + "(order_id text primary key, total numeric)");
+        jdbc.update("INSERT INTO " + legacy + " VALUES ('ORD-LG1', 12.34), ('ORD-LG2', 123456789.00), "
+                + "('ORD-LG3', 'NaN'), ('ORD-LG4', 99999999.994), ('ORD-LG5', NULL)");
+        try {
+            // used to abort on the first out-of-range total, and the application with it
+            assertThat(new OrdersSchema(jdbc, legacy, 4).apply()).isEqualTo(2);
+
+            assertThat(jdbc.queryForList("select order_id from " + legacy + " order by order_id", String.class))
+                    .containsExactly("ORD-LG1", "ORD-LG4", "ORD-LG5");
+            assertThat(jdbc.queryForList("select order_id from " + legacy + "_unmigrated order by order_id", String.class))
+                    .containsExactly("ORD-LG2", "ORD-LG3");
+            // already partitioned: nothing left to migrate
+            assertThat(new OrdersSchema(jdbc, legacy, 4).apply()).isZero();
+        } finally {
+            jdbc.execute("DROP TABLE IF EXISTS " + legacy + " CASCADE");
+            jdbc.execute("DROP TABLE IF EXISTS " + legacy + "_unmigrated");
+        }
+    }
+
+    // Generates rows (from, to] in chunks so no single statement holds a huge transaction
+    private long fill(long from, long to) {
+        for (long lo = from; lo < to; lo += CHUNK) {
+            long hi = Math.min(lo + CHUNK, to);
+            jdbc.update("INSERT INTO " + TABLE + "(order_id, event_id, customer_id, total, ts, promotion_code) "
+                    + "SELECT 'ORD-SCALE-' || g, 'EVT-' || g, 'CUST-' || (g % 10000), (g % 100000) / 100.0, "
+                    + "?::timestamptz + g * interval '1 second', NULL FROM generate_series(?::bigint, ?::bigint) g "
+                    + "ON CONFLICT (order_id) DO NOTHING", Timestamp.from(EPOCH), lo + 1, hi);
+        }
+        return Math.max(from, to);
+    }
+
+    private static long percentile(long[] samples, int p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1)];
+    }
+}
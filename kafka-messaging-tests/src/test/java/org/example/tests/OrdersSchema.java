@@ -0,0 +1,102 @@
+package org.example.tests;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Owns the DDL of the orders table, applied once at startup instead of a {@code CREATE TABLE IF NOT EXISTS}
+ * per write.
+ * <ul>
+ *   <li>Full event fields; {@code order_id} stays the conflict target, so inserts keep first-write-wins upsert
+ *       semantics</li>
+ *   <li>{@code PARTITION BY HASH (order_id)} into {@code partitions} tables: every index and every point lookup
+ *       covers 1/N of the rows, and each partition can be vacuumed on its own</li>
+ *   <li>BRIN on {@code ts}: events arrive roughly in time order, so a block-range index answers time-window
+ *       queries at a tiny fraction of a B-tree's size and insert cost</li>
+ * </ul>
+ * A plain (unpartitioned) table from before this schema is migrated in the same transaction: its rows are
+ * staged in a temp table, the old table is dropped and the rows are copied into the new one. The old
+ * {@code total} was an unbounded {@code numeric}; a value that does not fit {@code numeric(10,2)} would abort the
+ * copy and the startup with it, so such rows are moved to {@code <table>_unmigrated} with the reason instead,
+ * and reported.
+ */
+final class OrdersSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(OrdersSchema.class);
+
+    static final String TABLE = "orders";
+    static final String UPSERT = upsertSql(TABLE);
+    static final String SELECT = "SELECT order_id, event_id, customer_id, total, ts, promotion_code FROM " + TABLE
+            + " WHERE order_id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final String table;
+    private final int partitions;
+
+    OrdersSchema(JdbcTemplate jdbc, String table, int partitions) {
+        if (partitions < 1) throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        if (!table.matches("[a-z_][a-z0-9_]*")) throw new IllegalArgumentException("not a plain table name: " + table);
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        this.table = table;
+        this.partitions = partitions;
+    }
+
+    static String upsertSql(String table) {
+        return "INSERT INTO " + table + "(order_id, event_id, customer_id, total, ts, promotion_code) VALUES (?,?,?,?,?,?) "
+                + "ON CONFLICT (order_id) DO NOTHING";
+    }
+
+    String upsertSql() { return upsertSql(table); }
+
+    /** The stored version of an order, or null if it has not been stored. */
+    static OrderRow find(JdbcTemplate jdbc, String orderId) {
+        List<OrderRow> rows = jdbc.query(SELECT, (rs, i) -> OrderRow.from(rs), orderId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** Creates or migrates the table; returns the legacy rows moved to {@code <table>_unmigrated}, 0 if none. */
+    int apply() {
+        Integer unmigrated = tx.execute(status -> {
+            // serialize concurrent starters (several app contexts share one test database)
+            jdbc.execute("SELECT pg_advisory_xact_lock(hashtext('orders-schema:" + table + "'))");
+            List<String> kind = jdbc.queryForList(
+                    "SELECT c.relkind::text FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                            + "WHERE c.relname = ? AND n.nspname = current_schema()", String.class, table);
+            boolean legacy = kind.equals(List.of("r"));
+            if (legacy) {
+                jdbc.execute("CREATE TEMP TABLE " + table + "_legacy ON COMMIT DROP AS SELECT order_id, total FROM " + table);
+                jdbc.execute("DROP TABLE " + table);
+            }
+
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "order_id text NOT NULL, event_id text, customer_id text, total numeric(10,2), "
+                    + "ts timestamptz, promotion_code text, PRIMARY KEY (order_id)) PARTITION BY HASH (order_id)");
+            for (int i = 0; i < partitions; i++) {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS " + table + "_p" + i + " PARTITION OF " + table
+                        + " FOR VALUES WITH (MODULUS " + partitions + ", REMAINDER " + i + ")");
+            }
+            jdbc.execute("CREATE INDEX IF NOT EXISTS " + table + "_ts_brin ON " + table + " USING brin (ts)");
+
+            if (!legacy) return 0;
+            // rounded to the column's scale first: 99999999.995 overflows too; NaN compares above every number
+            String outOfRange = "abs(round(total, 2)) >= 100000000";
+            jdbc.execute("CREATE TABLE IF NOT EXISTS " + table + "_unmigrated (order_id text PRIMARY KEY, total numeric, reason text)");
+            int rejected = jdbc.update("INSERT INTO " + table + "_unmigrated SELECT order_id, total, 'total out of range for numeric(10,2)' FROM "
+                    + table + "_legacy WHERE " + outOfRange + " ON CONFLICT (order_id) DO NOTHING");
+            jdbc.update("INSERT INTO " + table + "(order_id, total) SELECT order_id, total FROM " + table
+                    + "_legacy WHERE total IS NULL OR NOT (" + outOfRange + ") ON CONFLICT (order_id) DO NOTHING");
+            return rejected;
+        });
+        if (unmigrated > 0) {
+            log.warn("{} legacy rows of {} did not fit the new schema and were moved to {}_unmigrated", unmigrated, table, table);
+        }
+        return unmigrated;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.example.tests.OrderFixtures.order;
+
+/**
+ * High-value orders on the priority lane vs. the same orders left on {@code orders.created}, both sent while a
+ * backlog of small orders saturates the orders listener. Latency runs from the send to the order being stored,
+ * taken from its {@code orders.latest} changelog record, which the listener writes right after the sink.
+ */
+public class PriorityLaneLoadE2E extends KafkaConfigTest {
+  @Autowired TestRestTemplate rest;
+  @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+  @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+  @Autowired JdbcTemplate jdbc;
+  @Value("${app.topics.orders}") String ordersTopic;
+  @Value("${app.topics.latest:orders.latest}") String latestTopic;
+
+  @Test @AllureId("E2E-011")
+  void priorityLane_p99_whileTheOrdersLaneIsSaturated() throws Exception {
+    int backlog = Integer.getInteger("load.records", 5_000) * 10;
+    int probes = 200;
+    Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    Map<String, Long> storedAt = new ConcurrentHashMap<>();
+
+    var props = new ContainerProperties(latestTopic);
+    props.setGroupId("priority-lane-e2e");
+    props.setMessageListener((MessageListener<String, OrderCreated>) rec -> {
+      if (rec.key() != null && sentAt.containsKey(rec.key())) storedAt.putIfAbsent(rec.key(), rec.timestamp());
+    });
+    var stored = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+    stored.start();
+    try {
+      // saturate the orders lane: small orders, far more than the listener drains during the probes
+      var sends = new ArrayList<CompletableFuture<?>>(backlog);
+      for (int i = 0; i < backlog; i++) {
+        sends.add(avroKafkaTemplate.send(ordersTopic, "C-" + (i % 100), order("ORD-PLB" + i, "C-" + (i % 100), 1_025, Instant.now())));
+      }
+      CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+      // the same high-value orders, through ingest (priority lane) and straight onto orders.created (no lane)
+      for (int i = 0; i < probes; i++) {
+        String priority = "ORD-PLP" + i, bulk = "ORD-PLN" + i;
+        sentAt.put(priority, System.currentTimeMillis());
+        var resp = rest.postForEntity("/api/orders", Map.of("orderId", priority, "customerId", "C-VIP", "total", 2500), Void.class);
+        assertThat(resp.getStatusCode().value()).isEqualTo(202);
+        sentAt.put(bulk, System.currentTimeMillis());
+        avroKafkaTemplate.send(ordersTopic, "C-VIP", order(bulk, "C-VIP", 250_000, Instant.now()));
+        Thread.sleep(20);
+      }
+
+      await().atMost(Duration.ofMinutes(2))
+          .until(() -> storedAt.keySet().stream().filter(k -> k.startsWith("ORD-PLP")).count() == probes);
+      // still saturated: the last small order was not stored when the last priority order was
+      Integer backlogLeft = jdbc.queryForObject("select count(*) from orders where order_id = ?", Integer.class, "ORD-PLB" + (backlog - 1));
+      assertThat(backlogLeft).isZero();
+
+      await().atMost(Duration.ofMinutes(10)).pollInterval(Duration.ofSeconds(1))
+          .until(() -> storedAt.size() == 2 * probes);
+    } finally {
+      stored.stop();
+    }
+
+    long[] priority = latencies(sentAt, storedAt, "ORD-PLP"), bulk = latencies(sentAt, storedAt, "ORD-PLN");
+    String report = String.format("backlog %d small orders on %s%n%-22s %8s %8s %8s%n", backlog, ordersTopic, "lane", "p50 ms", "p99 ms", "max ms")
+        + row("priority topic", priority) + row("orders.created", bulk);
+    Allure.addAttachment("priority lane latency under saturation", "text/plain", report);
+
+    assertThat(percentile(priority, 0.99)).isLessThan(percentile(bulk, 0.50));
+    assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-PLP%' or order_id like 'ORD-PLN%'", Integer.class))
+        .isEqualTo(2 * probes);
+  }
+
+  private static long[] latencies(Map<String, Long> sentAt, Map<String, Long> storedAt, String prefix) {
+    return storedAt.entrySet().stream().filter(e -> e.getKey().startsWith(prefix))
+        .mapToLong(e -> e.getValue() - sentAt.get(e.getKey())).sorted().toArray();
+  }
+
+  private static long percentile(long[] sorted, double p) {
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+  }
+
+  private static String row(String lane, long[] sorted) {
+    return String.format("%-22s %8d %8d %8d%n", lane, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1]);
+  }
+}
@@ -0,0 +1,58 @@
+package org.example.tests;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import org.apache.avro.generic.GenericData;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full specific-record decode vs. projection decode of two fields ({@code orderId}, {@code total}).
+ * {@code OrderService} now stores every field, so this measures the technique rather than the listener.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=ProjectionDecodeBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionDecodeBenchmark {
+
+    private static final String SCOPE = "bench-projection";
+
+    byte[] payload;
+    OrderCreatedDeserializer specific;
+    OrderCreatedDeserializer projection;
+
+    @Setup
+    public void setup() throws Exception {
+        SchemaRegistryClient registry = MockSchemaRegistry.getClientForScope(SCOPE);
+        int id = registry.register("orders.created-value", new AvroSchema(OrderCreated.getClassSchema()));
+        GenericData.Record rec = OrderCreatedDeserializerIT.order(OrderCreated.getClassSchema(), "ORD-2024-000123456");
+        rec.put("eventId", "EVT-7c5e3a0e-8d4b-4f7e-9d0a-3b1f2c9e6a11");
+        rec.put("customerId", "CUST-0000982341-EU-WEST");
+        rec.put("promotionCode", "SPRING-SALE-2024-FREE-SHIPPING");
+        payload = OrderCreatedDeserializerIT.framed(id, OrderCreated.getClassSchema(), rec);
+
+        specific = new OrderCreatedDeserializer(registry, 4, List.of());
+        projection = new OrderCreatedDeserializer(registry, 4, List.of("orderId", "total"));
+    }
+
+    @TearDown
+    public void tearDown() { MockSchemaRegistry.dropScope(SCOPE); }
+
+    @Benchmark
+    public OrderCreated fullSpecificRecord() {
+        return specific.deserialize("orders.created", payload);
+    }
+
+    @Benchmark
+    public OrderCreated projectedFields() {
+        return projection.deserialize("orders.created", payload);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Under {@code decode-mode=projection} an invalid order reaches the DLQ as the bytes it was consumed as. */
+@TestPropertySource(properties = "app.avro.decode-mode=projection")
+public class ProjectionDlqIT extends KafkaConfigTest {
+
+    @Autowired KafkaTemplate<String, Object> genericAvroKafkaTemplate;
+    @Autowired ConsumerFactory<byte[], byte[]> bytesConsumerFactory;
+
+    @Test @AllureId("IT-033")
+    void projectedInvalidOrder_isDeadLettered_withItsOriginalBytes() throws Exception {
+        Schema v2 = new Schema.Parser().parse(Files.readString(Path.of("src/test/avro/v2/OrderCreated.avsc")));
+        GenericData.Record bad = new GenericData.Record(v2);
+        bad.put("eventId", "EVT-PJ1");
+        bad.put("orderId", "ORD-PJ1");
+        bad.put("customerId", "C-PJ1");
+        bad.put("total", ByteBuffer.wrap(new BigDecimal("-3.00").movePointRight(2).unscaledValue().toByteArray()));
+        bad.put("ts", Instant.now().toEpochMilli());
+        bad.put("promotionCode", "SAVE10");
+
+        genericAvroKafkaTemplate.send("orders.created", "C-PJ1", bad).join();
+
+        byte[] sent;
+        try (var consumer = bytesConsumerFactory.createConsumer("projection-source-group", "projection-source-client")) {
+            consumer.subscribe(List.of("orders.created"));
+            sent = DlqAssertionIT.recordByKey(consumer, "C-PJ1").value();
+        }
+        try (var consumer = bytesConsumerFactory.createConsumer("projection-dlq-group", "projection-dlq-client")) {
+            consumer.subscribe(List.of("orders.created.DLQ"));
+            var rec = DlqAssertionIT.recordByKey(consumer, "C-PJ1");
+            assertThat(rec.value()).isEqualTo(sent);
+            assertThat(new String(rec.headers().lastHeader("kafka_dlt-exception-message").value(), UTF_8))
+                    .isEqualTo("validation: negative total");
+            assertThat(rec.headers().lastHeader(OrderCreatedDeserializer.ORIGINAL_VALUE_HEADER)).isNull();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same bodies and defaults ({@code load.requests}, {@code load.concurrency}) as {@link OrderIngestLoadE2E},
+ * so the Allure load reports of both runs compare servlet and reactive ingress like for like.
+ */
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+public class ReactiveIngressLoadE2E extends KafkaConfigTest {
+  @Autowired WebTestClient web;
+  @Autowired JdbcTemplate jdbc;
+  @Autowired @Qualifier("ingestProducerFactory") ProducerFactory<String, OrderCreated> ingestProducerFactory;
+  @Autowired OrderLanes orderLanes;
+  @LocalServerPort int port;
+
+  @Test @AllureId("E2E-004")
+  void ndjsonStream_isAckedPerOrder_andPersisted() {
+    StringBuilder ndjson = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      ndjson.append("{\"orderId\":\"ORD-R").append(i).append("\",\"customerId\":\"C-").append(i % 7).append("\",\"total\":").append(i).append(".10}\n");
+    }
+    ndjson.append("{\"customerId\":\"C-1\",\"total\":1}\n");
+
+    var results = web.post().uri("/api/orders").contentType(MediaType.APPLICATION_NDJSON).bodyValue(ndjson.toString())
+        .exchange().expectStatus().isOk()
+        .returnResult(ReactiveOrdersIngress.IngestResult.class).getResponseBody()
+        .collectList().block(java.time.Duration.ofSeconds(30));
+
+    assertThat(results).hasSize(201);
+    assertThat(results).filteredOn(r -> r.status().equals("ACKED")).hasSize(200);
+    assertThat(results).filteredOn(r -> r.status().equals("MISSING_ORDER_ID")).hasSize(1);
+
+    org.awaitility.Awaitility.await().untilAsserted(() -> {
+      Integer cnt = jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-R%'", Integer.class);
+      assertThat(cnt).isEqualTo(200);
+    });
+  }
+
+  @Test @AllureId("E2E-005")
+  void reactiveSingleOrderPath_underLoad() throws Exception {
+    int requests = Integer.getInteger("load.requests", 5_000);
+    int concurrency = Integer.getInteger("load.concurrency", 32);
+    List<byte[]> bodies = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      bodies.add(("{\"orderId\":\"ORD-L" + i + "\",\"customerId\":\"C-" + (i % 100) + "\",\"total\":" + (i % 1000) + ".25}").getBytes(UTF_8));
+    }
+    URI uri = URI.create("http://localhost:" + port + "/api/orders");
+
+    HttpLoadDriver.run("warmup reactive", uri, "application/json", bodies.subList(0, 500), concurrency);
+    var reactive = HttpLoadDriver.run("reactive WebFlux + KafkaSender path", uri, "application/json", bodies, concurrency);
+
+    assertThat(reactive.errors()).isZero();
+  }
+
+  @Test @AllureId("E2E-013")
+  void oneRejectedSend_isReportedFailed_andTheOthersStillStream() {
+    // a producer that rejects any record over 1 KB, so only the order with the long customerId fails
+    var props = new HashMap<>(ingestProducerFactory.getConfigurationProperties());
+    props.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, 1024);
+    var sender = ReactiveOrdersIngress.sender(props, 16);
+    try {
+      List<OrderIngest> orders = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        OrderIngest in = new OrderIngest();
+        in.orderId = "ORD-RF" + i;
+        in.customerId = i == 5 ? "C-" + "x".repeat(2_000) : "C-" + (i % 7);
+        in.total = BigDecimal.valueOf(i + 1);
+        orders.add(in);
+      }
+
+      var results = new ReactiveOrdersIngress.Handler(sender, orderLanes).ingest(Flux.fromIterable(orders))
+          .collectList().block(Duration.ofSeconds(30));
+
+      assertThat(results).hasSize(20);
+      assertThat(results).filteredOn(r -> r.status().equals("FAILED")).extracting(ReactiveOrdersIngress.IngestResult::orderId)
+          .containsExactly("ORD-RF5");
+      assertThat(results).filteredOn(r -> r.status().equals("ACKED")).hasSize(19);
+    } finally {
+      sender.close();
+    }
+  }
+}
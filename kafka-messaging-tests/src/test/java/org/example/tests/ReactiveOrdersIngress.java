@@ -0,0 +1,108 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Reactive ingress, active when the app runs with {@code spring.main.web-application-type=reactive}.
+ * <p>
+ * {@code POST /api/orders} (JSON) answers 202 once the broker has acked. With an {@code application/x-ndjson}
+ * body, orders are sent as they are read and one result line is streamed back per order. The sender requests
+ * at most {@code app.ingress.reactive.max-in-flight} unacked records from the body. Netty only reads more of
+ * the request as demand frees up, so producer acks pace the HTTP client.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrdersIngress {
+
+    record IngestResult(String orderId, String status, Integer partition, Long offset) {}
+
+    @Bean(destroyMethod = "close")
+    KafkaSender<String, OrderCreated> reactiveOrderSender(@Qualifier("ingestProducerFactory") ProducerFactory<String, OrderCreated> ingestProducerFactory,
+                                                          @Value("${app.ingress.reactive.max-in-flight:1024}") int maxInFlight) {
+        return sender(ingestProducerFactory.getConfigurationProperties(), maxInFlight);
+    }
+
+    // stopOnError(false): a record the producer rejects (too large, serialization) is reported as FAILED in its
+    // result line instead of cancelling the sends of the rest of the stream
+    static KafkaSender<String, OrderCreated> sender(Map<String, Object> producerProps, int maxInFlight) {
+        return KafkaSender.create(SenderOptions.<String, OrderCreated>create(producerProps)
+                .maxInFlight(maxInFlight)
+                .stopOnError(false));
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> reactiveOrderRoutes(KafkaSender<String, OrderCreated> reactiveOrderSender,
+                                                       OrderLanes orderLanes) {
+        var handler = new Handler(reactiveOrderSender, orderLanes);
+        return RouterFunctions.route()
+                .POST("/api/orders", RequestPredicates.contentType(MediaType.APPLICATION_NDJSON), handler::stream)
+                .POST("/api/orders", handler::single)
+                .build();
+    }
+
+    static final class Handler {
+        private final KafkaSender<String, OrderCreated> sender;
+        private final OrderLanes lanes;
+
+        Handler(KafkaSender<String, OrderCreated> sender, OrderLanes lanes) {
+            this.sender = sender; this.lanes = lanes;
+        }
+
+        Mono<ServerResponse> single(ServerRequest request) {
+            return request.bodyToMono(OrderIngest.class)
+                    .flatMap(in -> in.validate() != OrderIngest.Validation.OK
+                            ? ServerResponse.badRequest().build()
+                            : sender.send(Mono.just(record(in))).next()
+                                .flatMap(r -> ServerResponse.accepted().build())
+                                .onErrorResume(e -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+        }
+
+        Mono<ServerResponse> stream(ServerRequest request) {
+            Flux<IngestResult> results = ingest(request.bodyToFlux(OrderIngest.class));
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(results, IngestResult.class);
+        }
+
+        // one result per order, in ack order rather than body order
+        Flux<IngestResult> ingest(Flux<OrderIngest> orders) {
+            return orders.publish(body -> Flux.merge(
+                    body.filter(in -> in.validate() != OrderIngest.Validation.OK)
+                        .map(in -> new IngestResult(in.orderId, in.validate().name(), null, null)),
+                    sender.send(body.filter(in -> in.validate() == OrderIngest.Validation.OK).map(this::record))
+                        .map(Handler::acked)));
+        }
+
+        private SenderRecord<String, OrderCreated, String> record(OrderIngest in) {
+            OrderCreated event = in.toEvent(Instant.now());
+            return SenderRecord.create(new ProducerRecord<>(lanes.topicFor(event), in.customerId, event), in.orderId);
+        }
+
+        private static IngestResult acked(SenderResult<String> r) {
+            return r.exception() != null
+                    ? new IngestResult(r.correlationMetadata(), "FAILED", null, null)
+                    : new IngestResult(r.correlationMetadata(), "ACKED", r.recordMetadata().partition(), r.recordMetadata().offset());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.tests;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * V1 writer -> V2 reader decode: a new {@code SpecificDatumReader(writer, reader)} per record, as a deserializer
+ * without a cache would do, vs. the reader served from {@link AvroResolverCache}. Avro's thread-local resolver
+ * cache, keyed by schema identity, still serves the per-record reader here; a deserializer that re-parses the
+ * writer schema for each record would miss it and pay the grammar build as well.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=ResolverCacheBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolverCacheBenchmark {
+
+    Schema v1;
+    Schema v2;
+    byte[] payload;
+    BinaryDecoder binary;
+    AvroResolverCache<OrderCreated> cache;
+    AvroResolverCache.Key key;
+
+    @Setup
+    public void setup() throws Exception {
+        v1 = new Schema.Parser().parse(Files.readString(Path.of("src/test/avro/v1/OrderCreated.avsc")));
+        v2 = OrderCreated.getClassSchema();
+        GenericData.Record rec = OrderCreatedDeserializerIT.order(v1, "ORD-1");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder enc = EncoderFactory.get().binaryEncoder(out, null);
+        new GenericDatumWriter<GenericData.Record>(v1).write(rec, enc);
+        enc.flush();
+        payload = out.toByteArray();
+        cache = new AvroResolverCache<>(16, SpecificDatumReader::new);
+        // fingerprints are computed once per schema id in OrderCreatedDeserializer, so keep them out of the loop
+        key = AvroResolverCache.key(v1, v2);
+    }
+
+    @Benchmark
+    public OrderCreated uncachedResolution() throws IOException {
+        binary = DecoderFactory.get().binaryDecoder(payload, binary);
+        return new SpecificDatumReader<OrderCreated>(v1, v2).read(null, binary);
+    }
+
+    @Benchmark
+    public OrderCreated cachedResolution() throws IOException {
+        binary = DecoderFactory.get().binaryDecoder(payload, binary);
+        return cache.get(key, v1, v2).read(null, binary);
+    }
+}
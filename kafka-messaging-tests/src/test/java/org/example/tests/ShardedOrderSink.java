@@ -0,0 +1,57 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code app.sink.mode=sharded}: {@code shards} independent write-behind lanes, each with its own ring, batch and
+ * writer thread, chosen by a hash of {@code order_id}. All writes for one order go through one lane in arrival
+ * order, while different lanes flush to Postgres in parallel.
+ * <p>
+ * Each lane takes a connection from the pool for every flush rather than pinning one, so a lane recovers after an
+ * outage like the other sinks do. With {@code shards} at or below the pool size, every lane effectively writes on
+ * its own connection. Lanes ack as they flush, out of order across lanes. The container's async acks still commit
+ * only the contiguous prefix of each partition.
+ */
+final class ShardedOrderSink implements OrderSink {
+
+    private final List<WriteBehindOrderSink> lanes;
+
+    ShardedOrderSink(int shards, JdbcTemplate jdbc, DbBackpressure backpressure, SinkCircuitBreaker circuit,
+                     OrderDeadLetters deadLetters, int capacityPerShard, int batchSize, Duration flushInterval) {
+        if (shards < 1) throw new IllegalArgumentException("shards must be positive: " + shards);
+        this.lanes = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            lanes.add(new WriteBehindOrderSink("orders-shard-" + i, jdbc, backpressure, circuit, deadLetters,
+                    capacityPerShard, batchSize, flushInterval));
+        }
+    }
+
+    @Override
+    public boolean acksAsynchronously() { return true; }
+
+    @Override
+    public void write(ConsumerRecord<String, OrderCreated> rec, OrderRow row, Acknowledgment ack, TestApp.OrderService.AfterStore stored) {
+        lanes.get(shardFor(row.orderId(), lanes.size())).write(rec, row, ack, stored);
+    }
+
+    static int shardFor(String orderId, int shards) {
+        int h = orderId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards);
+    }
+
+    int shards() { return lanes.size(); }
+
+    long flushes() { return lanes.stream().mapToLong(WriteBehindOrderSink::flushes).sum(); }
+
+    long written() { return lanes.stream().mapToLong(WriteBehindOrderSink::written).sum(); }
+
+    @Override
+    public void close() { lanes.forEach(WriteBehindOrderSink::close); }
+}
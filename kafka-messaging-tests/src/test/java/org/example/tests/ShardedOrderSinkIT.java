@@ -0,0 +1,92 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scaling of {@link ShardedOrderSink} over shard counts. Each flush pays an injected round trip, as against a
+ * remote Postgres. The single listener thread only enqueues, so any gain comes from lanes flushing in parallel.
+ */
+public class ShardedOrderSinkIT extends KafkaConfigTest {
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired OrderDeadLetters orderDeadLetters;
+    @Autowired DbBackpressure dbBackpressure;
+    @Autowired SinkCircuitBreaker ordersCircuit;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-011")
+    void throughput_scalesWithShardCount() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        var remote = new FaultInjectingDataSource(dataSource);
+        remote.setDelay(Duration.ofMillis(10));
+        var remoteJdbc = new JdbcTemplate(remote);
+
+        var report = new StringBuilder(String.format("%-7s %8s %10s %12s %8s%n", "shards", "records", "elapsed ms", "records/s", "flushes"));
+        Map<Integer, Double> rate = new HashMap<>();
+        for (int shards : List.of(1, 2, 4, 8)) {
+            String topic = "orders.shard-bench." + shards, prefix = "ORD-SH" + shards + "-";
+            createTopic(topic);
+            produce(avroKafkaTemplate, topic, prefix, n);
+
+            var sink = new ShardedOrderSink(shards, remoteJdbc, dbBackpressure, ordersCircuit, orderDeadLetters, 4_096, 200, Duration.ofMillis(20));
+            var props = new ContainerProperties(topic);
+            props.setGroupId(topic + "-group");
+            props.setAckMode(ContainerProperties.AckMode.MANUAL);
+            props.setAsyncAcks(true);
+            props.setMessageListener((AcknowledgingMessageListener<String, OrderCreated>) new TestApp.OrderService(sink, orderDeadLetters, List.of())::onOrder);
+            var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+
+            long start = System.nanoTime();
+            container.start();
+            try {
+                org.awaitility.Awaitility.await().atMost(Duration.ofMinutes(5)).pollInterval(Duration.ofMillis(50))
+                        .until(() -> jdbc.queryForObject("select count(*) from orders where order_id like ?", Integer.class, prefix + "%") == n);
+            } finally {
+                container.stop();
+                sink.close();
+            }
+            long elapsed = System.nanoTime() - start;
+            rate.put(shards, n / (elapsed / 1e9));
+            report.append(String.format("%-7d %8d %10d %12.0f %8d%n", shards, n, elapsed / 1_000_000, rate.get(shards), sink.flushes()));
+        }
+
+        Allure.addAttachment("sharded writers", "text/plain", report.toString());
+
+        assertThat(rate.get(4)).as("4 lanes vs 1").isGreaterThan(rate.get(1));
+    }
+
+    @Test @AllureId("IT-012")
+    void orderIds_spreadEvenlyAcrossShards() {
+        int[] perShard = new int[8];
+        for (int i = 0; i < 8_000; i++) perShard[ShardedOrderSink.shardFor("ORD-" + i, 8)]++;
+        assertThat(java.util.Arrays.stream(perShard).boxed().toList()).allSatisfy(c -> assertThat(c).isBetween(800, 1_200));
+    }
+
+    private static void createTopic(String topic) throws Exception {
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) 1))).all().get();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.tests;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker around the orders sink.
+ * <p>
+ * {@code failureThreshold} consecutive connectivity failures open it. Opening closes the listener gate, so the
+ * container stops fetching, and the record that failed is redelivered later rather than dead-lettered (see
+ * {@link SinkUnavailableException}). While open, one {@code SELECT 1} probe runs per {@code probeInterval}.
+ * The first successful probe half-opens the breaker and lets records through again. The next write closes it,
+ * or re-opens it if that write fails.
+ * <p>
+ * Only connectivity-type errors count. A constraint violation or bad SQL is the record's problem and keeps going
+ * through the regular error handler.
+ */
+final class SinkCircuitBreaker implements AutoCloseable {
+
+    static final String REASON = "db-circuit";
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ListenerGate gate;
+    private final JdbcTemplate probe;
+    private final int failureThreshold;
+    private final Duration probeInterval;
+    private final ScheduledExecutorService prober;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long probes;
+    private ScheduledFuture<?> probing;
+
+    SinkCircuitBreaker(ListenerGate gate, DataSource dataSource, int failureThreshold, Duration probeInterval) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failure threshold must be positive: " + failureThreshold);
+        this.gate = gate;
+        this.probe = new JdbcTemplate(dataSource);
+        this.failureThreshold = failureThreshold;
+        this.probeInterval = probeInterval;
+        this.prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-circuit-probe");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    static boolean isOutage(DataAccessException e) {
+        return e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+    }
+
+    /** Throws instead of letting a write start while the breaker is open. */
+    synchronized void checkClosed() {
+        if (state == State.OPEN) throw new SinkUnavailableException("orders sink circuit is open", null);
+    }
+
+    /** Blocks while the breaker is open, until a probe half-opens it and a write may be tried again. */
+    synchronized void awaitProbe() throws InterruptedException {
+        while (state == State.OPEN) wait();
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) state = State.CLOSED;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) open();
+    }
+
+    synchronized State state() { return state; }
+
+    synchronized long probes() { return probes; }
+
+    private void open() {
+        state = State.OPEN;
+        gate.close(REASON);
+        if (probing == null || probing.isDone()) {
+            long every = probeInterval.toNanos();
+            probing = prober.scheduleWithFixedDelay(this::probe, every, every, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void probe() {
+        synchronized (this) {
+            if (state != State.OPEN) return;
+            probes++;
+        }
+        try {
+            probe.execute("SELECT 1");
+        } catch (RuntimeException e) {
+            return;
+        }
+        synchronized (this) {
+            if (state != State.OPEN) return;
+            state = State.HALF_OPEN;
+            probing.cancel(false);
+            gate.open(REASON);
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void close() { prober.shutdownNow(); }
+}
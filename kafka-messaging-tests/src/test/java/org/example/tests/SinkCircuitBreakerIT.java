@@ -0,0 +1,92 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Takes the database away with {@link FaultInjectingDataSource} while a dedicated container, using the app's
+ * error handler and DLQ recoverer, consumes a topic of healthy orders.
+ */
+public class SinkCircuitBreakerIT extends KafkaConfigTest {
+
+    private static final String DLQ = "orders.created.DLQ";
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired @Qualifier("dltTemplate") KafkaTemplate<Object, Object> dltTemplate;
+    @Autowired CommonErrorHandler errorHandler;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-008")
+    void outage_opensCircuit_pausesConsumption_andDeadLettersNothing() throws Exception {
+        String topic = "orders.circuit";
+        int n = 200;
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) 1))).all().get();
+        }
+        produce(avroKafkaTemplate, topic, "ORD-SC", n);
+        long[] dlqBefore = endOffsets(DLQ);
+
+        var db = new FaultInjectingDataSource(dataSource);
+        db.setUnavailable(true);
+
+        var containerRef = new AtomicReference<KafkaMessageListenerContainer<String, OrderCreated>>();
+        var gate = new ListenerGate(containerRef::get);
+        var thresholds = new DbBackpressure.Thresholds(Duration.ofSeconds(10), Duration.ofSeconds(1), 1.0, 1.0, Duration.ofSeconds(1));
+        try (var backpressure = new DbBackpressure(gate, db, thresholds);
+             var circuit = new SinkCircuitBreaker(gate, db, 3, Duration.ofSeconds(1))) {
+            var service = new TestApp.OrderService(new DirectOrderSink(new JdbcTemplate(db), backpressure, circuit),
+                    new OrderDeadLetters(dltTemplate, DLQ), List.of());
+
+            var props = new ContainerProperties(topic);
+            props.setGroupId("circuit");
+            props.setMessageListener((MessageListener<String, OrderCreated>) service::onOrder);
+            var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+            container.setCommonErrorHandler(errorHandler);
+            containerRef.set(container);
+            container.start();
+            try {
+                org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30))
+                        .until(() -> circuit.state() == SinkCircuitBreaker.State.OPEN);
+                assertThat(gate.isOpen()).isFalse();
+
+                // stays open through the outage, probing about once a second rather than once per record
+                long probesBefore = circuit.probes();
+                org.awaitility.Awaitility.await().during(Duration.ofSeconds(5)).atMost(Duration.ofSeconds(7))
+                        .until(() -> circuit.state() == SinkCircuitBreaker.State.OPEN);
+                assertThat(circuit.probes() - probesBefore).isBetween(3L, 8L);
+                assertThat(endOffsets(DLQ)).as("nothing dead-lettered during the outage").isEqualTo(dlqBefore);
+
+                db.setUnavailable(false);
+                org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(60)).untilAsserted(() ->
+                        assertThat(jdbc.queryForObject("select count(*) from orders where order_id like 'ORD-SC%'", Integer.class))
+                                .isEqualTo(n));
+                assertThat(circuit.state()).isEqualTo(SinkCircuitBreaker.State.CLOSED);
+                assertThat(gate.isOpen()).isTrue();
+                assertThat(endOffsets(DLQ)).isEqualTo(dlqBefore);
+            } finally {
+                container.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.tests;
+
+/**
+ * The orders sink could not be reached; says nothing about the record itself. The error handler redelivers
+ * these indefinitely instead of dead-lettering them.
+ */
+class SinkUnavailableException extends RuntimeException {
+
+    SinkUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    static boolean isCause(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SinkUnavailableException) return true;
+        }
+        return false;
+    }
+}
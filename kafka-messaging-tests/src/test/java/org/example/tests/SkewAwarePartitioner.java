@@ -0,0 +1,174 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.clients.producer.internals.StickyPartitionCache;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+import org.example.avro.v2.OrderCreated;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Partitions {@code orders.created} by {@code customerId} like Kafka's default (murmur2 of the key), except for
+ * hot keys: their records are spread over {@link #SPREAD_CONFIG} partitions starting at the key's own, chosen by
+ * {@code orderId}, so one whale customer no longer loads a single partition. Each order still lands in one
+ * partition; normal keys keep their partition and their ordering. Records without a key are placed sticky, a
+ * partition per batch, as Kafka places them by default. For a pre-encoded {@code byte[]} value the
+ * {@code orderId} is read from the Avro binary, so the lane depends on the order, not on how it was encoded.
+ * <p>
+ * A spread key's order across partitions is carried by {@link Sequencer}, which must be configured as an
+ * interceptor on the same producer: it stamps every record of a hot key with {@link #SEQUENCE_HEADER} (producer
+ * epoch, per-key sequence) and {@link KeyResequencer} restores that order on the consumer. The partitioner only
+ * spreads records the sequencer stamped; Kafka runs {@code onSend} and then {@code partition} on the sending
+ * thread, so the decision is handed over in a thread-local and cannot diverge between the two.
+ * <p>
+ * Hot keys are the configured ones plus, with a detector, keys whose share of the send traffic reaches the
+ * threshold. Detected keys stay hot for the producer's life: demoting one while its spread records are still
+ * unconsumed would let its next record overtake them.
+ */
+public class SkewAwarePartitioner implements Partitioner {
+
+    /** The {@link HotKeys} instance shared by the partitioner and the sequencer. */
+    static final String HOT_KEYS_CONFIG = "orders.partitioner.hot-keys";
+    /** Partitions a hot key is spread over; 0 or absent means all of the topic's partitions. */
+    static final String SPREAD_CONFIG = "orders.partitioner.spread";
+    /** 16 bytes: the producer epoch, then the key's sequence number, both big-endian longs. */
+    static final String SEQUENCE_HEADER = "orders.key-seq";
+
+    private final StickyPartitionCache sticky = new StickyPartitionCache();
+    private HotKeys hotKeys;
+    private int spread;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        hotKeys = HotKeys.from(configs);
+        Object spread = configs.get(SPREAD_CONFIG);
+        this.spread = spread == null ? 0 : Integer.parseInt(spread.toString());
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        if (keyBytes == null) return sticky.partition(topic, cluster);
+        int partitions = cluster.partitionsForTopic(topic).size();
+        int home = Utils.toPositive(Utils.murmur2(keyBytes)) % partitions;
+        if (key == null || !hotKeys.stampedOnThisThread(key.toString())) return home;
+
+        int lanes = spread <= 0 ? partitions : Math.min(spread, partitions);
+        byte[] lane = value instanceof OrderCreated order ? order.getOrderId().toString().getBytes(UTF_8)
+                : value instanceof byte[] framed ? orderIdOf(framed) : null;
+        if (lane == null) return home;
+        return (home + Utils.toPositive(Utils.murmur2(lane)) % lanes) % partitions;
+    }
+
+    // Only called for keyless records, whose batch is full: move them on to another partition
+    @SuppressWarnings("deprecation")
+    @Override
+    public void onNewBatch(String topic, Cluster cluster, int prevPartition) {
+        sticky.nextPartition(topic, cluster, prevPartition);
+    }
+
+    /** UTF-8 {@code orderId} of a Confluent-framed v1 or v2 {@code OrderCreated} (both start eventId, orderId); null if cut short. */
+    static byte[] orderIdOf(byte[] framed) {
+        int pos = ConfluentWire.HEADER_SIZE;
+        for (int field = 0; field < 2; field++) {
+            long n = AvroBinaryScanner.readLong(framed, pos, framed.length);
+            int start = AvroBinaryScanner.varintEnd(framed, pos, framed.length);
+            if (n < 0 || start < 0 || n > framed.length - start) return null;
+            if (field == 1) return Arrays.copyOfRange(framed, start, start + (int) n);
+            pos = start + (int) n;
+        }
+        return null;
+    }
+
+    @Override public void close() {}
+
+    /** Stamps hot-key records with their sequence; see the class comment. */
+    public static class Sequencer implements ProducerInterceptor<Object, Object> {
+        private HotKeys hotKeys;
+
+        @Override public void configure(Map<String, ?> configs) { hotKeys = HotKeys.from(configs); }
+
+        @Override
+        public ProducerRecord<Object, Object> onSend(ProducerRecord<Object, Object> record) {
+            hotKeys.stamped.remove();
+            if (record.key() == null) return record;
+            String key = record.key().toString();
+            if (!hotKeys.isHot(key)) return record;
+
+            long seq = hotKeys.sequences.computeIfAbsent(key, k -> new AtomicLong()).getAndIncrement();
+            record.headers().add(SEQUENCE_HEADER, ByteBuffer.allocate(16).putLong(hotKeys.epoch).putLong(seq).array());
+            hotKeys.stamped.set(key);
+            return record;
+        }
+
+        @Override public void onAcknowledgement(RecordMetadata metadata, Exception exception) {}
+        @Override public void close() {}
+    }
+
+    /**
+     * The hot-key set of one producer: fixed keys plus, when a detector is given, keys reaching {@code share} of
+     * its traffic once it has seen {@code minRecords}. The detector is consulted at most once a second.
+     */
+    static final class HotKeys {
+        private static final long REFRESH_NANOS = 1_000_000_000L;
+
+        private final Set<String> configured;
+        private final HotKeyDetector detector;
+        private final double share;
+        private final long minRecords;
+        private final Set<String> detected = ConcurrentHashMap.newKeySet();
+        private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+        private final ThreadLocal<String> stamped = new ThreadLocal<>();
+        // distinguishes this producer's sequences from a previous instance's after a restart
+        private final long epoch = ThreadLocalRandom.current().nextLong();
+        private volatile long nextRefresh = System.nanoTime();
+
+        HotKeys(Collection<String> configured, HotKeyDetector detector, double share, long minRecords) {
+            this.configured = Set.copyOf(configured);
+            this.detector = detector;
+            this.share = share;
+            this.minRecords = minRecords;
+        }
+
+        static HotKeys from(Map<String, ?> configs) {
+            Object hotKeys = configs.get(HOT_KEYS_CONFIG);
+            if (!(hotKeys instanceof HotKeys h)) {
+                throw new IllegalStateException(HOT_KEYS_CONFIG + " must hold a SkewAwarePartitioner.HotKeys, got " + hotKeys);
+            }
+            return h;
+        }
+
+        boolean isHot(String key) {
+            if (detector != null && System.nanoTime() - nextRefresh >= 0) refresh();
+            return configured.contains(key) || detected.contains(key);
+        }
+
+        Set<String> detected() { return Set.copyOf(detected); }
+
+        private synchronized void refresh() {
+            if (System.nanoTime() - nextRefresh < 0) return;
+            nextRefresh = System.nanoTime() + REFRESH_NANOS;
+            var snapshot = detector.snapshot();
+            if (snapshot.total() < minRecords) return;
+            for (var heavy : snapshot.top()) {
+                if (heavy.share() >= share) detected.add(heavy.key());
+            }
+        }
+
+        private boolean stampedOnThisThread(String key) {
+            return key.equals(stamped.get());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.tests.OrderFixtures.order;
+
+/**
+ * Partition load of a whale customer under Kafka's default key partitioning vs. {@link SkewAwarePartitioner},
+ * and the whale's send order restored by {@link KeyResequencer}.
+ */
+public class SkewAwarePartitionerIT extends KafkaConfigTest {
+
+    private static final String WHALE = "C-WHALE";
+    private static final Node NODE = new Node(0, "localhost", 9092);
+
+    @Autowired @Qualifier("ingestProducerFactory") ProducerFactory<String, OrderCreated> ingestProducerFactory;
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+
+    @Test @AllureId("IT-021")
+    void hotKeyIsSpread_normalKeysKeepTheDefaultPartition() {
+        var hotKeys = new SkewAwarePartitioner.HotKeys(Set.of(WHALE), null, 0.2, 1_000);
+        var sequencer = new SkewAwarePartitioner.Sequencer();
+        sequencer.configure(Map.of(SkewAwarePartitioner.HOT_KEYS_CONFIG, hotKeys));
+        var partitioner = new SkewAwarePartitioner();
+        partitioner.configure(Map.of(SkewAwarePartitioner.HOT_KEYS_CONFIG, hotKeys));
+        Cluster cluster = cluster("orders.created", 3);
+
+        // 60% of the orders from one customer, the rest from 20 others
+        long[] byDefault = new long[3], skewAware = new long[3];
+        long lastSeq = -1;
+        for (int i = 0; i < 30_000; i++) {
+            String customer = i % 5 < 3 ? WHALE : "C-" + (i % 50);
+            var rec = sequencer.onSend(new ProducerRecord<>("orders.created", customer, order("ORD-SK" + i, customer)));
+            byte[] keyBytes = customer.getBytes(UTF_8);
+            int home = Utils.toPositive(Utils.murmur2(keyBytes)) % 3;
+            int p = partitioner.partition("orders.created", customer, keyBytes, rec.value(), null, cluster);
+            byDefault[home]++;
+            skewAware[p]++;
+
+            var seq = rec.headers().lastHeader(SkewAwarePartitioner.SEQUENCE_HEADER);
+            if (customer.equals(WHALE)) {
+                long s = ByteBuffer.wrap(seq.value()).getLong(8);
+                assertThat(s).isEqualTo(lastSeq + 1);
+                lastSeq = s;
+                // a redelivery of the same order goes where the order went
+                var again = sequencer.onSend(new ProducerRecord<>("orders.created", customer, order("ORD-SK" + i, customer)));
+                assertThat(partitioner.partition("orders.created", customer, keyBytes, again.value(), null, cluster)).isEqualTo(p);
+            } else {
+                assertThat(seq).isNull();
+                assertThat(p).isEqualTo(home);
+            }
+        }
+
+        String report = String.format("%-14s %8s %8s %8s %6s%n", "partitioning", "p0", "p1", "p2", "skew")
+                + row("default", byDefault) + row("skew-aware", skewAware);
+        Allure.addAttachment("partition load, 60% whale", "text/plain", report);
+        assertThat(skew(byDefault)).isGreaterThan(1.5);
+        assertThat(skew(skewAware)).isLessThan(1.25);
+
+        // a spread of 2 keeps the whale off one partition entirely
+        var narrow = new SkewAwarePartitioner();
+        narrow.configure(Map.of(SkewAwarePartitioner.HOT_KEYS_CONFIG, hotKeys, SkewAwarePartitioner.SPREAD_CONFIG, 2));
+        var used = new long[3];
+        for (int i = 0; i < 1_000; i++) {
+            var rec = sequencer.onSend(new ProducerRecord<>("orders.created", WHALE, order("ORD-SK-N" + i, WHALE)));
+            used[narrow.partition("orders.created", WHALE, WHALE.getBytes(UTF_8), rec.value(), null, cluster)]++;
+        }
+        assertThat(Arrays.stream(used).filter(c -> c > 0).count()).isEqualTo(2);
+
+        // a pre-encoded value takes the lane of its orderId, like the decoded order
+        for (int i = 0; i < 100; i++) {
+            var evt = order("ORD-SK-B" + i, WHALE);
+            byte[] framed = ByteBuffer.allocate(ConfluentWire.HEADER_SIZE + OrderSpool.encode(evt).length)
+                    .put(ConfluentWire.header(1)).put(OrderSpool.encode(evt)).array();
+            assertThat(SkewAwarePartitioner.orderIdOf(framed)).isEqualTo(("ORD-SK-B" + i).getBytes(UTF_8));
+            sequencer.onSend(new ProducerRecord<>("orders.created", WHALE, evt));
+            int decoded = partitioner.partition("orders.created", WHALE, WHALE.getBytes(UTF_8), evt, null, cluster);
+            sequencer.onSend(new ProducerRecord<>("orders.created", WHALE, framed));
+            assertThat(partitioner.partition("orders.created", WHALE, WHALE.getBytes(UTF_8), framed, framed, cluster)).isEqualTo(decoded);
+        }
+
+        // no key: no hashing, a partition of the topic as Kafka's default would pick
+        sequencer.onSend(new ProducerRecord<>("orders.created", null, order("ORD-SK-K", WHALE)));
+        assertThat(partitioner.partition("orders.created", null, null, order("ORD-SK-K", WHALE), null, cluster)).isBetween(0, 2);
+    }
+
+    @Test @AllureId("IT-022")
+    void whaleLoadEvensOutOnTheBroker_andItsOrderIsRestored() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        String defaultTopic = "orders.skew-bench.default", spreadTopic = "orders.skew-bench.spread";
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(defaultTopic, 3, (short) 1), new NewTopic(spreadTopic, 3, (short) 1))).all().get();
+        }
+
+        Map<String, Object> spreadProps = new HashMap<>(ingestProducerFactory.getConfigurationProperties());
+        spreadProps.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, SkewAwarePartitioner.Sequencer.class.getName());
+        spreadProps.put(SkewAwarePartitioner.HOT_KEYS_CONFIG, new SkewAwarePartitioner.HotKeys(Set.of(WHALE), null, 0.2, 1_000));
+        Map<String, Object> defaultProps = new HashMap<>(ingestProducerFactory.getConfigurationProperties());
+        defaultProps.remove(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        defaultProps.remove(ProducerConfig.PARTITIONER_CLASS_CONFIG);
+
+        List<String> whaleOrders = new ArrayList<>();
+        try (var spread = new KafkaProducer<String, OrderCreated>(spreadProps);
+             var byKey = new KafkaProducer<String, OrderCreated>(defaultProps)) {
+            for (int i = 0; i < n; i++) {
+                String customer = i % 5 < 3 ? WHALE : "C-" + (i % 50);
+                var evt = order("ORD-SKB" + i, customer);
+                if (customer.equals(WHALE)) whaleOrders.add("ORD-SKB" + i);
+                spread.send(new ProducerRecord<>(spreadTopic, customer, evt));
+                byKey.send(new ProducerRecord<>(defaultTopic, customer, evt));
+            }
+        }
+
+        long[] byDefault = endOffsets(defaultTopic), skewAware = endOffsets(spreadTopic);
+        String report = String.format("%-14s %8s %8s %8s %6s%n", "partitioning", "p0", "p1", "p2", "skew")
+                + row("default", byDefault) + row("skew-aware", skewAware);
+        Allure.addAttachment("broker partition load, 60% whale", "text/plain", report);
+        assertThat(skew(byDefault)).isGreaterThan(1.5);
+        assertThat(skew(skewAware)).isLessThan(1.25);
+
+        // read all three partitions at once, as they interleave, and restore the whale's order
+        Map<String, Object> consumerProps = new HashMap<>(avroConsumerFactory.getConfigurationProperties());
+        consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerProps.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        var resequencer = new KeyResequencer<String, OrderCreated>(n);
+        List<String> released = new ArrayList<>();
+        long read = 0;
+        try (var consumer = new KafkaConsumer<String, OrderCreated>(consumerProps)) {
+            var partitions = IntStream.range(0, 3).mapToObj(p -> new TopicPartition(spreadTopic, p)).toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+            while (read < n && System.nanoTime() < deadline) {
+                for (ConsumerRecord<String, OrderCreated> rec : consumer.poll(Duration.ofMillis(200))) {
+                    read++;
+                    for (var ready : resequencer.accept(rec)) {
+                        if (WHALE.equals(ready.key())) released.add(ready.value().getOrderId().toString());
+                    }
+                }
+            }
+        }
+        assertThat(read).isEqualTo(n);
+        assertThat(resequencer.pending()).isZero();
+        assertThat(released).isEqualTo(whaleOrders);
+    }
+
+    @Test @AllureId("IT-039")
+    void resequencer_dropsDrainedLanesOfStoppedProducers_butKeepsOnesHoldingRecords() {
+        var resequencer = new KeyResequencer<String, String>(100, 2);
+        // epoch 9 is waiting for its sequence 0
+        assertThat(resequencer.accept(sequenced(9, 1, "B"))).isEmpty();
+        // three more producers that each sent two records and stopped
+        for (long epoch = 10; epoch <= 12; epoch++) {
+            assertThat(resequencer.accept(sequenced(epoch, 0, "x"))).hasSize(1);
+            assertThat(resequencer.accept(sequenced(epoch, 1, "y"))).hasSize(1);
+        }
+        assertThat(resequencer.lanes()).isEqualTo(2);
+        assertThat(resequencer.pending()).isEqualTo(1);
+
+        assertThat(resequencer.accept(sequenced(9, 0, "A"))).extracting(ConsumerRecord::value).containsExactly("A", "B");
+        assertThat(resequencer.pending()).isZero();
+    }
+
+    private static ConsumerRecord<String, String> sequenced(long epoch, long seq, String value) {
+        var rec = new ConsumerRecord<>("orders.created", 0, 0L, WHALE, value);
+        rec.headers().add(SkewAwarePartitioner.SEQUENCE_HEADER, ByteBuffer.allocate(16).putLong(epoch).putLong(seq).array());
+        return rec;
+    }
+
+    private static Cluster cluster(String topic, int partitions) {
+        var infos = IntStream.range(0, partitions)
+                .mapToObj(p -> new PartitionInfo(topic, p, NODE, new Node[]{NODE}, new Node[]{NODE})).toList();
+        return new Cluster("skew", List.of(NODE), infos, Set.of(), Set.of());
+    }
+
+    private static double skew(long[] counts) {
+        return Arrays.stream(counts).max().orElse(0) / Arrays.stream(counts).average().orElse(1);
+    }
+
+    private static String row(String name, long[] c) {
+        return String.format("%-14s %8d %8d %8d %6.2f%n", name, c[0], c[1], c[2], skew(c));
+    }
+}
@@ -1,22 +1,39 @@
 package org.example.tests;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.example.avro.v2.OrderCreated;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.sql.DataSource;
 
 @SpringBootApplication
 @Import(AvroKafkaTestConfig.class)
@@ -25,13 +42,20 @@ public class TestApp {
 
   @RestController
   @RequestMapping("/api/orders")
+  @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)   // reactive mode: ReactiveOrdersIngress
   static class OrdersController {
-    private final KafkaTemplate<String, OrderCreated> kafka;
-    private final String topic;
+    private final OrderPublisher publisher;
+    private final OrderReadCache orders;
 
-    OrdersController(KafkaTemplate<String, OrderCreated> kafka,
-                     @Value("${app.topics.orders}") String topic) {
-      this.kafka = kafka; this.topic = topic;
+    OrdersController(OrderPublisher publisher, OrderReadCache orders) {
+      this.publisher = publisher; this.orders = orders;
+    }
+
+    // Served from OrderReadCache, which the listener fills; only a cold miss queries Postgres
+    @GetMapping("/{orderId}")
+    public ResponseEntity<OrderRow> get(@PathVariable String orderId) {
+      OrderRow row = orders.get(orderId);
+      return row == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(row);
     }
 
     @PostMapping
@@ -50,29 +74,228 @@ public class TestApp {
           .setTs(Instant.now())
           .build();
 
-      kafka.send(topic, customerId, event);
-      return ResponseEntity.accepted().build();
+      return accepted(publisher.publish(event));
+    }
+
+    // Same contract as create, but bound by OrderIngest's streaming reader instead of a Map
+    @PostMapping("/typed")
+    public ResponseEntity<?> createTyped(@RequestBody OrderIngest body) {
+      if (body.validate() != OrderIngest.Validation.OK) return ResponseEntity.badRequest().build();
+      return accepted(publisher.publish(body.toEvent(Instant.now())));
+    }
+
+    // Upstreams that already hold OrderCreated v2 binary: structural check, then forwarded as-is behind the framing
+    @PostMapping(consumes = AvroPassThrough.MEDIA_TYPE)
+    public ResponseEntity<?> createAvro(@RequestBody byte[] body) {
+      var published = publisher.publishAvro(body);
+      return published == null ? ResponseEntity.badRequest().build() : accepted(published);
+    }
+
+    // 202 once the order is acked or in the local spool; 503 if it is neither, so the client retries
+    private static ResponseEntity<?> accepted(CompletableFuture<Void> published) {
+      try {
+        published.join();
+        return ResponseEntity.accepted().build();
+      } catch (CompletionException e) {
+        return ResponseEntity.status(503).build();
+      }
+    }
+  }
+
+  // Heaviest keys and partition skew, as produced and as consumed; ?reset=true starts a new window
+  @RestController
+  static class HotKeysController {
+    private final HotKeyDetector send;
+    private final HotKeyDetector listen;
+
+    HotKeysController(@Qualifier("sendHotKeys") HotKeyDetector send, @Qualifier("listenHotKeys") HotKeyDetector listen) {
+      this.send = send; this.listen = listen;
+    }
+
+    @GetMapping("/api/hot-keys")
+    public Map<String, HotKeyDetector.Snapshot> hotKeys(@RequestParam(defaultValue = "false") boolean reset) {
+      var snapshot = Map.of("send", send.snapshot(), "listen", listen.snapshot());
+      if (reset) { send.reset(); listen.reset(); }
+      return snapshot;
+    }
+  }
+
+  // Validation outcome with its DLQ reason pre-encoded; computed without BigDecimal or exceptions
+  enum OrderValidation {
+    VALID(null),
+    MISSING_ORDER_ID("validation: missing orderId"),
+    NEGATIVE_TOTAL("validation: negative total");
+
+    final byte[] reason;
+    OrderValidation(String reason) { this.reason = reason == null ? null : reason.getBytes(StandardCharsets.UTF_8); }
+
+    static OrderValidation of(OrderCreated evt) {
+      if (!StringUtils.hasText(evt.getOrderId())) return MISSING_ORDER_ID;
+      ByteBuffer total = evt.getTotal();
+      // two's-complement big-endian: the sign is the top bit of the first byte
+      if (total.remaining() > 0 && total.get(total.position()) < 0) return NEGATIVE_TOTAL;
+      return VALID;
     }
   }
 
   static class OrderService {
-    private final JdbcTemplate jdbc;
-    OrderService(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+    static final String LISTENER_ID = "orders";
+    static final String PRIORITY_LISTENER_ID = "orders-priority";
+    // Fields onOrder reads; app.avro.decode-mode=projection decodes only these
+    static final List<String> DECODED_FIELDS = List.of("eventId", "orderId", "customerId", "total", "ts", "promotionCode");
 
-    @KafkaListener(topics = "${app.topics.orders}", groupId = "order-consumers")
-    public void onOrder(OrderCreated evt) {
-      if (!StringUtils.hasText(evt.getOrderId())) {
-        throw new IllegalArgumentException("validation: missing orderId");
-      }
-      var bd = new BigDecimal(new java.math.BigInteger(evt.getTotal().array()), 2);
-      if (bd.signum() < 0) {
-        throw new IllegalArgumentException("validation: negative total");
+    /**
+     * Told about every order once the sink has made it durable, with the version the table kept: the read cache,
+     * the latest-order changelog, the archive. An asynchronous sink calls it after the listener has returned.
+     * The order is acked only once the returned future completes; if it fails, the sink tries again (the direct
+     * sink a bounded number of times, then the order is dead-lettered).
+     */
+    interface AfterStore {
+      CompletableFuture<?> onStored(OrderRow row);
+    }
+
+    private final OrderSink sink;
+    private final OrderDeadLetters deadLetters;
+    private final AfterStore stored;
+
+    OrderService(OrderSink sink, OrderDeadLetters deadLetters, List<AfterStore> afterStore) {
+      this.sink = sink; this.deadLetters = deadLetters;
+      this.stored = row -> {
+        CompletableFuture<?>[] done = new CompletableFuture<?>[afterStore.size()];
+        for (int i = 0; i < done.length; i++) done[i] = afterStore.get(i).onStored(row);
+        return CompletableFuture.allOf(done);
+      };
+    }
+
+    // ack is only present under MANUAL ack mode, which asynchronous sinks (write-behind) require
+    @KafkaListener(id = LISTENER_ID, topics = "${app.topics.orders}", groupId = "order-consumers")
+    public void onOrder(ConsumerRecord<String, OrderCreated> rec,
+                        @Header(name = KafkaHeaders.ACKNOWLEDGMENT, required = false) Acknowledgment ack) {
+      OrderCreated evt = rec.value();
+      OrderValidation result = OrderValidation.of(evt);
+      if (result != OrderValidation.VALID) {
+        deadLetters.send(rec, result.reason);
+        if (ack != null) ack.acknowledge();
+        return;
       }
-      jdbc.update("CREATE TABLE IF NOT EXISTS orders(order_id text primary key, total numeric)");
-      jdbc.update("INSERT INTO orders(order_id,total) VALUES(?,?) ON CONFLICT (order_id) DO NOTHING",
-          evt.getOrderId(), bd);
+      sink.write(rec, OrderRow.of(evt), ack, stored);
+    }
+
+    // High-value orders routed by OrderLanes: own topic, own group and more consumers; backpressure gates only
+    // the orders container, so this lane keeps moving while the bulk lane is paused or backlogged
+    @KafkaListener(id = PRIORITY_LISTENER_ID, topics = "${app.topics.orders-priority:orders.created.priority}",
+                   groupId = "order-consumers-priority", concurrency = "${app.priority.concurrency:3}",
+                   containerFactory = "priorityListenerContainerFactory")
+    public void onPriorityOrder(ConsumerRecord<String, OrderCreated> rec,
+                                @Header(name = KafkaHeaders.ACKNOWLEDGMENT, required = false) Acknowledgment ack) {
+      onOrder(rec, ack);
     }
+
+    public void onOrder(ConsumerRecord<String, OrderCreated> rec) {
+      onOrder(rec, null);
+    }
+  }
+
+  // Reads the decimal between position and limit; pooled deserializers hand out reused buffers
+  // whose backing array can be longer than the value.
+  static BigDecimal total(ByteBuffer buf) {
+    byte[] unscaled = new byte[buf.remaining()];
+    buf.duplicate().get(unscaled);
+    return new BigDecimal(new java.math.BigInteger(unscaled), 2);
+  }
+
+  @Bean public OrderService orderService(OrderSink orderSink, OrderDeadLetters orderDeadLetters, List<OrderService.AfterStore> afterStore) {
+    return new OrderService(orderSink, orderDeadLetters, afterStore);
+  }
+
+  // Orders at or above the threshold (in currency units, cents precision) take the priority lane
+  @Bean OrderLanes orderLanes(@Value("${app.topics.orders}") String ordersTopic,
+                              @Value("${app.topics.orders-priority:orders.created.priority}") String priorityTopic,
+                              @Value("${app.priority.threshold:1000.00}") BigDecimal threshold) {
+    return new OrderLanes(ordersTopic, priorityTopic, threshold);
   }
 
-  @Bean public OrderService orderService(JdbcTemplate jdbc) { return new OrderService(jdbc); }
+  // Where ingest spills orders while the broker is unreachable; point app.spool.dir at persistent storage
+  @Bean OrderSpool orderSpool(@Value("${app.spool.dir:${java.io.tmpdir}/orders-spool}") String dir,
+                              @Value("${app.spool.segment-size:64MB}") DataSize segmentSize) throws IOException {
+    return new OrderSpool(Path.of(dir), Math.toIntExact(segmentSize.toBytes()));
+  }
+
+  @Bean OrderPublisher orderPublisher(@Qualifier("ingestKafkaTemplate") KafkaTemplate<String, OrderCreated> ingestKafkaTemplate,
+                                      KafkaTemplate<String, byte[]> rawAvroKafkaTemplate,
+                                      AvroPassThrough avroPassThrough, OrderLanes orderLanes, OrderSpool orderSpool,
+                                      @Value("${app.spool.ack-timeout:5s}") Duration ackTimeout,
+                                      @Value("${app.spool.drain-batch:500}") int drainBatch) {
+    return new OrderPublisher(ingestKafkaTemplate, rawAvroKafkaTemplate, avroPassThrough, orderLanes, orderSpool, ackTimeout, drainBatch);
+  }
+
+  @Bean OrderReadCache orderReadCache(JdbcTemplate jdbc, @Value("${app.orders.cache.max-size:10000}") long maxSize) {
+    return new OrderReadCache(jdbc, maxSize);
+  }
+
+  @Bean @ConditionalOnProperty(name = "app.orders.changelog.enabled", havingValue = "true", matchIfMissing = true)
+  OrderChangelog orderChangelog(KafkaTemplate<String, OrderCreated> avroKafkaTemplate,
+                                @Value("${app.topics.latest:orders.latest}") String latestTopic) {
+    return new OrderChangelog(avroKafkaTemplate, latestTopic);
+  }
+
+  // Rolling Avro container files of every stored order; codec null | deflate[-level] | zstandard[-level]
+  @Bean @ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+  OrderArchive orderArchive(@Value("${app.archive.dir:${java.io.tmpdir}/orders-archive}") String dir,
+                            @Value("${app.archive.codec:zstandard-3}") String codec,
+                            @Value("${app.archive.max-file-size:128MB}") DataSize maxFileSize,
+                            @Value("${app.archive.roll-interval:15m}") Duration rollInterval) throws IOException {
+    return new OrderArchive(Path.of(dir), codec, maxFileSize.toBytes(), rollInterval);
+  }
+
+  @Bean OrderDeadLetters orderDeadLetters(@Qualifier("dltTemplate") KafkaTemplate<Object, Object> dltTemplate,
+                                          @Value("${app.topics.dlq:orders.DLQ}") String dlqTopic) {
+    return new OrderDeadLetters(dltTemplate, dlqTopic);
+  }
+
+  // Applied before any sink exists, so listeners never write to a missing table
+  @Bean OrdersSchema ordersSchema(JdbcTemplate jdbc, @Value("${app.orders.partitions:16}") int partitions) {
+    OrdersSchema schema = new OrdersSchema(jdbc, OrdersSchema.TABLE, partitions);
+    schema.apply();
+    return schema;
+  }
+
+  // direct | write-behind | sharded (write-behind lanes by order_id hash; keep shards <= the Hikari pool size)
+  @Bean OrderSink orderSink(OrdersSchema ordersSchema, JdbcTemplate jdbc, DbBackpressure dbBackpressure,
+                            SinkCircuitBreaker ordersCircuit,
+                            OrderDeadLetters orderDeadLetters,
+                            @Value("${app.sink.mode:direct}") String mode,
+                            @Value("${app.sink.after-store-timeout:10s}") Duration afterStoreTimeout,
+                            @Value("${app.sink.write-behind.capacity:4096}") int capacity,
+                            @Value("${app.sink.write-behind.batch-size:500}") int batchSize,
+                            @Value("${app.sink.write-behind.flush-interval:50ms}") Duration flushInterval,
+                            @Value("${app.sink.sharded.shards:4}") int shards) {
+    return switch (mode) {
+      case "direct" -> new DirectOrderSink(jdbc, dbBackpressure, ordersCircuit, afterStoreTimeout);
+      case "write-behind" -> new WriteBehindOrderSink(jdbc, dbBackpressure, ordersCircuit, orderDeadLetters, capacity, batchSize, flushInterval);
+      case "sharded" -> new ShardedOrderSink(shards, jdbc, dbBackpressure, ordersCircuit, orderDeadLetters, capacity, batchSize, flushInterval);
+      default -> throw new IllegalArgumentException("unknown app.sink.mode: " + mode);
+    };
+  }
+
+  // Containers are created after the singletons, so the gate looks the orders container up on first use
+  @Bean ListenerGate ordersGate(KafkaListenerEndpointRegistry registry) {
+    return new ListenerGate(() -> registry.getListenerContainer(OrderService.LISTENER_ID));
+  }
+
+  @Bean DbBackpressure dbBackpressure(ListenerGate ordersGate, DataSource dataSource,
+                                      @Value("${app.backpressure.pause-latency:250ms}") Duration pauseLatency,
+                                      @Value("${app.backpressure.resume-latency:50ms}") Duration resumeLatency,
+                                      @Value("${app.backpressure.pause-pool-utilization:0.9}") double pauseUtilization,
+                                      @Value("${app.backpressure.resume-pool-utilization:0.5}") double resumeUtilization,
+                                      @Value("${app.backpressure.probe-interval:200ms}") Duration probeInterval) {
+    return new DbBackpressure(ordersGate, dataSource,
+        new DbBackpressure.Thresholds(pauseLatency, resumeLatency, pauseUtilization, resumeUtilization, probeInterval));
+  }
+
+  @Bean SinkCircuitBreaker ordersCircuit(ListenerGate ordersGate, DataSource dataSource,
+                                         @Value("${app.circuit.failure-threshold:5}") int failureThreshold,
+                                         @Value("${app.circuit.probe-interval:5s}") Duration probeInterval) {
+    return new SinkCircuitBreaker(ordersGate, dataSource, failureThreshold, probeInterval);
+  }
 }
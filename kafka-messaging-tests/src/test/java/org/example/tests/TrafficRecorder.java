@@ -0,0 +1,139 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Captures raw records of a topic (key, value and header bytes, timestamp) into a file for {@link TrafficReplay},
+ * so load tests can run on production's key skew and timing instead of synthetic traffic. Nothing is decoded.
+ * <p>
+ * The file is a {@code MAGIC, VERSION} header followed by records, each prefixed by its length:
+ * {@code int length, long timestamp, int keyLength, key, int valueLength, value, short headerCount} and per
+ * header {@code short nameLength, name, int valueLength, value}. A length of -1 is a null key or value. A record
+ * cut short by a crash is where replay stops.
+ */
+final class TrafficRecorder implements AutoCloseable {
+
+    static final int MAGIC = 0x4F545243;   // "OTRC"
+    static final int VERSION = 1;
+
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocate(1 << 20);
+    private long records;
+
+    TrafficRecorder(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buf.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * Reads {@code topic} with its own consumer (no group, nothing committed) until {@code maxRecords} are
+     * recorded or {@code maxTime} has passed. {@code consumerProps} needs the bootstrap servers; deserializers
+     * are set here. Live capture starts at the end of each partition; {@code fromBeginning} records the history.
+     *
+     * @return the number of records written to {@code file}
+     */
+    static long capture(Map<String, Object> consumerProps, String topic, Path file, boolean fromBeginning,
+                        long maxRecords, Duration maxTime) throws IOException {
+        Map<String, Object> props = new HashMap<>(consumerProps);
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        try (var recorder = new TrafficRecorder(file);
+             var consumer = new KafkaConsumer<byte[], byte[]>(props)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo p : consumer.partitionsFor(topic)) partitions.add(new TopicPartition(topic, p.partition()));
+            consumer.assign(partitions);
+            if (fromBeginning) consumer.seekToBeginning(partitions);
+            else consumer.seekToEnd(partitions);
+
+            long deadline = System.nanoTime() + maxTime.toNanos();
+            while (recorder.records() < maxRecords && System.nanoTime() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> rec : consumer.poll(Duration.ofMillis(200))) {
+                    recorder.append(rec.timestamp(), rec.key(), rec.value(), rec.headers());
+                    if (recorder.records() >= maxRecords) break;
+                }
+            }
+            return recorder.records();
+        }
+    }
+
+    synchronized void append(long timestamp, byte[] key, byte[] value, Headers headers) throws IOException {
+        int size = 4 + 8 + 4 + length(key) + 4 + length(value) + 2;
+        int count = 0;
+        if (headers != null) {
+            for (Header h : headers) {
+                size += 2 + h.key().getBytes(UTF_8).length + 4 + length(h.value());
+                count++;
+            }
+        }
+        if (buf.remaining() < size) flush();
+        // a record larger than the buffer is written on its own
+        ByteBuffer out = buf.remaining() >= size ? buf : ByteBuffer.allocate(size);
+        out.putInt(size - 4).putLong(timestamp);
+        put(out, key);
+        put(out, value);
+        out.putShort((short) count);
+        if (headers != null) {
+            for (Header h : headers) {
+                byte[] name = h.key().getBytes(UTF_8);
+                out.putShort((short) name.length).put(name);
+                put(out, h.value());
+            }
+        }
+        if (out != buf) write(out.flip());
+        records++;
+    }
+
+    synchronized long records() { return records; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.force(false);
+        channel.close();
+    }
+
+    private void flush() throws IOException {
+        write(buf.flip());
+        buf.clear();
+    }
+
+    private void write(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) channel.write(b);
+    }
+
+    private static int length(byte[] b) {
+        return b == null ? 0 : b.length;
+    }
+
+    private static void put(ByteBuffer out, byte[] b) {
+        if (b == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(b.length).put(b);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Republishes a {@link TrafficRecorder} file. The file is memory-mapped read-only, a window at a time, and read
+ * sequentially: a record costs its key, value and header copies and nothing else, so the producer, not replay,
+ * sets the pace ({@code TrafficReplayBenchmark} measures the ceiling).
+ * <p>
+ * At {@code speed} 1 records are sent with their recorded spacing, relative to the first record; at N the
+ * spacing is divided by N; at {@link #MAX_SPEED} nothing waits. Replay only waits when it is ahead of schedule,
+ * so a record recorded out of timestamp order (partitions interleave) goes out at once. Records keep their key
+ * and headers but get a new timestamp, and the target topic's partitioner places them by key, so the key skew
+ * of the recording is reproduced.
+ */
+final class TrafficReplay implements AutoCloseable {
+
+    static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private static final int FILE_HEADER = 8;
+    private static final long DEFAULT_WINDOW = 256L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long window;
+    private MappedByteBuffer map;
+    private long base;
+
+    TrafficReplay(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+
+    TrafficReplay(Path file, long window) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = window;
+        if (size < FILE_HEADER || header(0) != TrafficRecorder.MAGIC || header(4) != TrafficRecorder.VERSION) {
+            channel.close();
+            throw new IllegalArgumentException("not a traffic recording: " + file);
+        }
+    }
+
+    long replay(Producer<byte[], byte[]> producer, String topic, double speed) throws IOException {
+        return replay(topic, speed, producer::send);
+    }
+
+    /**
+     * Hands every record of the file, from the start, to {@code send} as a record for {@code topic}.
+     *
+     * @return the number of records sent
+     */
+    long replay(String topic, double speed, Consumer<ProducerRecord<byte[], byte[]>> send) throws IOException {
+        if (!(speed > 0)) throw new IllegalArgumentException("speed must be positive: " + speed);
+        boolean paced = speed != MAX_SPEED;
+        long start = System.nanoTime(), first = 0, n = 0;
+        long pos = FILE_HEADER;
+        while (pos + 4 <= size) {
+            ensure(pos, 4);
+            int len = map.getInt((int) (pos - base));
+            if (len < 18 || pos + 4 + len > size) break;   // torn tail
+            ensure(pos, 4 + len);
+            int at = (int) (pos - base) + 4;
+            long ts = map.getLong(at);
+            at += 8;
+            byte[] key = bytes(at);
+            at += 4 + Math.max(0, map.getInt(at));
+            byte[] value = bytes(at);
+            at += 4 + Math.max(0, map.getInt(at));
+            int count = map.getShort(at);
+            at += 2;
+            var headers = new RecordHeaders();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[map.getShort(at)];
+                map.get(at + 2, name);
+                at += 2 + name.length;
+                headers.add(new RecordHeader(new String(name, UTF_8), bytes(at)));
+                at += 4 + Math.max(0, map.getInt(at));
+            }
+            pos += 4 + len;
+
+            if (paced) {
+                if (n == 0) first = ts;
+                long due = start + (long) ((ts - first) * 1_000_000 / speed);
+                // parkNanos may return early, so never send ahead of the recording
+                for (long wait; (wait = due - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+            }
+            send.accept(new ProducerRecord<>(topic, null, key, value, headers));
+            n++;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Maps a window holding [pos, pos + len) unless the current one already does
+    private void ensure(long pos, int len) throws IOException {
+        if (map != null && pos >= base && pos + len <= base + map.capacity()) return;
+        base = pos;
+        map = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, Math.max(window, len)));
+    }
+
+    private int header(int at) throws IOException {
+        ensure(0, FILE_HEADER);
+        return map.getInt(at);
+    }
+
+    private byte[] bytes(int at) {
+        int len = map.getInt(at);
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        map.get(at + 4, b);
+        return b;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.tests;
+
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.avro.v2.OrderCreated;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Ceiling of {@link TrafficReplay} at {@link TrafficReplay#MAX_SPEED}: records per second read from the mapped
+ * file and built into producer records, with no producer behind them; a replay load test is replay-bound only
+ * if its producer gets near this. {@code record} is the same for {@link TrafficRecorder#append}, flush included.
+ * Run: {@code mvn -pl kafka-messaging-tests -P bench verify -Dbench.include=TrafficReplayBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrafficReplayBenchmark {
+
+    private static final int RECORDS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Recording {
+        Path file;
+        TrafficReplay replay;
+        byte[][] keys = new byte[RECORDS][];
+        byte[][] values = new byte[RECORDS][];
+
+        @Setup
+        public void setup() throws IOException {
+            var zipf = new ZipfSampler(10_000, 1.0, 9);
+            for (int i = 0; i < RECORDS; i++) {
+                String customer = "C-" + zipf.next();
+                keys[i] = customer.getBytes(UTF_8);
+                values[i] = OrderSpool.encode(new OrderCreated("EVT-" + i, "ORD-" + i, customer,
+                        ByteBuffer.wrap(BigInteger.valueOf(2_500).toByteArray()), Instant.ofEpochMilli(1_700_000_000_000L + i), null));
+            }
+            file = Files.createTempFile("orders-traffic", ".rec");
+            try (var recorder = new TrafficRecorder(file)) {
+                for (int i = 0; i < RECORDS; i++) recorder.append(1_700_000_000_000L + i, keys[i], values[i], headers(i));
+            }
+            replay = new TrafficReplay(file);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            replay.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replay(Recording recording, Blackhole bh) throws IOException {
+        return recording.replay.replay("orders.created", TrafficReplay.MAX_SPEED, bh::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void record(Recording recording) throws IOException {
+        Path file = Files.createTempFile("orders-traffic", ".rec");
+        try (var recorder = new TrafficRecorder(file)) {
+            for (int i = 0; i < RECORDS; i++) recorder.append(1_700_000_000_000L + i, recording.keys[i], recording.values[i], headers(i));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordHeaders headers(int i) {
+        var headers = new RecordHeaders();
+        headers.add(new RecordHeader("trace", ("T" + i).getBytes(UTF_8)));
+        return headers;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.tests;
+
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.tests.OrderFixtures.order;
+
+/**
+ * {@link TrafficRecorder} and {@link TrafficReplay}: the file round trip and its pacing, then a capture of a
+ * skewed topic replayed into another, which must end up with the same records on the same partitions.
+ */
+public class TrafficReplayIT extends KafkaConfigTest {
+
+    @Autowired ProducerFactory<String, OrderCreated> orderCreatedProducerFactory;
+    @Autowired ConsumerFactory<byte[], byte[]> bytesConsumerFactory;
+
+    @TempDir Path dir;
+
+    @Test @AllureId("IT-027")
+    void replaysEveryRecordIntact_atRecordedSpacingOrFaster() throws Exception {
+        Path file = dir.resolve("orders.rec");
+        int n = 200;
+        try (var recorder = new TrafficRecorder(file)) {
+            // 5ms apart: one second of traffic
+            for (int i = 0; i < n; i++) {
+                var headers = new RecordHeaders().add(new RecordHeader("trace", ("T" + i).getBytes(UTF_8)));
+                recorder.append(1_700_000_000_000L + i * 5L, i % 10 == 0 ? null : ("C-" + i).getBytes(UTF_8),
+                        ("ORD-TR" + i).getBytes(UTF_8), headers);
+            }
+        }
+
+        // a small window makes replay remap many times
+        List<ProducerRecord<byte[], byte[]>> sent = new ArrayList<>();
+        try (var replay = new TrafficReplay(file, 256)) {
+            assertThat(replay.replay("orders.replayed", TrafficReplay.MAX_SPEED, sent::add)).isEqualTo(n);
+        }
+        assertThat(sent).hasSize(n);
+        assertThat(sent.get(0).key()).isNull();
+        assertThat(new String(sent.get(7).key(), UTF_8)).isEqualTo("C-7");
+        assertThat(new String(sent.get(n - 1).value(), UTF_8)).isEqualTo("ORD-TR" + (n - 1));
+        assertThat(new String(sent.get(42).headers().lastHeader("trace").value(), UTF_8)).isEqualTo("T42");
+        assertThat(sent).allMatch(r -> r.topic().equals("orders.replayed") && r.timestamp() == null);
+
+        // paced runs are never ahead of the recording; how far behind depends on the machine, so only the
+        // speed-up is compared
+        try (var replay = new TrafficReplay(file)) {
+            long realTime = paced(replay, 1, n);
+            long fourTimes = paced(replay, 4, n);
+            assertThat(fourTimes).isLessThan(realTime / 2);
+        }
+
+        // a record cut short by a crash ends the replay
+        try (var ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3);
+        }
+        try (var replay = new TrafficReplay(file)) {
+            assertThat(replay.replay("orders.replayed", TrafficReplay.MAX_SPEED, r -> {})).isEqualTo(n - 1);
+        }
+    }
+
+    @Test @AllureId("IT-028")
+    void capturedTrafficReplays_withTheSameRecordsOnTheSamePartitions() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        String source = "orders.traffic.source", target = "orders.traffic.replay";
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(source, 3, (short) 1), new NewTopic(target, 3, (short) 1))).all().get();
+        }
+
+        // keyed by customer, placed by Kafka's default partitioner
+        Map<String, Object> sourceProps = new HashMap<>(orderCreatedProducerFactory.getConfigurationProperties());
+        var zipf = new ZipfSampler(100, 1.2, 5);
+        try (var producer = new KafkaProducer<String, OrderCreated>(sourceProps)) {
+            for (int i = 0; i < n; i++) {
+                String customer = "C-" + zipf.next();
+                producer.send(new ProducerRecord<>(source, customer, order("ORD-TR" + i, customer)));
+            }
+        }
+
+        Path file = dir.resolve("orders.created.rec");
+        long captured = TrafficRecorder.capture(bytesConsumerFactory.getConfigurationProperties(), source, file, true,
+                n, Duration.ofMinutes(2));
+        assertThat(captured).isEqualTo(n);
+
+        Map<String, Object> replayProps = new HashMap<>();
+        replayProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.getBootstrapServers());
+        replayProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        replayProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        try (var producer = new KafkaProducer<byte[], byte[]>(replayProps);
+             var replay = new TrafficReplay(file)) {
+            assertThat(replay.replay(producer, target, TrafficReplay.MAX_SPEED)).isEqualTo(n);
+        }
+
+        // the partition load, and so the key skew, is reproduced; the payloads are byte for byte the same
+        assertThat(endOffsets(target)).containsExactly(endOffsets(source));
+        assertThat(values(target, n)).containsExactlyInAnyOrderElementsOf(values(source, n));
+    }
+
+    // Replays at speed, checking order and that no record is sent before its recorded offset / speed
+    private static long paced(TrafficReplay replay, double speed, int n) throws Exception {
+        List<String> values = new ArrayList<>(n);
+        long[] sentAt = new long[n];
+        long start = System.nanoTime();
+        replay.replay("orders.replayed", speed, r -> {
+            sentAt[values.size()] = System.nanoTime() - start;
+            values.add(new String(r.value(), UTF_8));
+        });
+        assertThat(values).containsExactlyElementsOf(IntStream.range(0, n).mapToObj(i -> "ORD-TR" + i).toList());
+        for (int i = 0; i < n; i++) assertThat(sentAt[i]).isGreaterThanOrEqualTo((long) (i * 5_000_000L / speed));
+        return sentAt[n - 1];
+    }
+
+    private List<String> values(String topic, int n) {
+        List<String> values = new ArrayList<>(n);
+        try (var consumer = new KafkaConsumer<byte[], byte[]>(bytesConsumerFactory.getConfigurationProperties())) {
+            var partitions = IntStream.range(0, 3).mapToObj(p -> new TopicPartition(topic, p)).toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+            while (values.size() < n && System.nanoTime() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> rec : consumer.poll(Duration.ofMillis(200))) {
+                    values.add(Base64.getEncoder().encodeToString(rec.value()));
+                }
+            }
+        }
+        return values;
+    }
+}
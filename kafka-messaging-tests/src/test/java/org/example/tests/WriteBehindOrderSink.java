@@ -0,0 +1,238 @@
+package org.example.tests;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.example.avro.v2.OrderCreated;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code app.sink.mode=write-behind}: the listener only puts orders on a bounded ring. A dedicated writer drains
+ * it and flushes once {@code batchSize} orders are waiting or {@code flushInterval} after the first one.
+ * Each flush is one batched INSERT in one transaction. That lets Kafka fetch/decode and DB I/O overlap and
+ * costs one commit per batch instead of one per row.
+ * <p>
+ * Orders are acknowledged, and passed on to the after-store hooks, only after their flush has committed. The container runs MANUAL ack mode with async
+ * acks, so its offsets never pass a row that is not in Postgres. If the process dies with orders still in the
+ * ring, they are simply redelivered. A full ring blocks the listener, which bounds memory. A slow flush is
+ * reported to {@link DbBackpressure}, which pauses the container before that wait gets long.
+ * <p>
+ * An outage keeps the batch and retries it once {@link SinkCircuitBreaker} lets a write through again. Any other
+ * SQL failure falls back to row by row, and a row that still fails is dead-lettered. Rows already written or
+ * dead-lettered are skipped if the batch has to be retried.
+ */
+final class WriteBehindOrderSink implements OrderSink {
+
+    private static final long RETRY_PAUSE_MS = 500;
+
+    private static final class Pending {
+        final ConsumerRecord<String, OrderCreated> rec;
+        final OrderRow row;
+        final Acknowledgment ack;
+        final TestApp.OrderService.AfterStore stored;
+        boolean done;   // written or dead-lettered row by row
+        OrderRow kept;  // the version in the table; null if dead-lettered
+        CompletableFuture<?> hooks;
+
+        Pending(ConsumerRecord<String, OrderCreated> rec, OrderRow row, Acknowledgment ack, TestApp.OrderService.AfterStore stored) {
+            this.rec = rec;
+            this.row = row;
+            this.ack = ack;
+            this.stored = stored;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final DbBackpressure backpressure;
+    private final SinkCircuitBreaker circuit;
+    private final OrderDeadLetters deadLetters;
+    private final BlockingQueue<Pending> ring;
+    private final int batchSize;
+    private final long flushNanos;
+    private final Thread writer;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile boolean abandoned;
+
+    WriteBehindOrderSink(JdbcTemplate jdbc, DbBackpressure backpressure, SinkCircuitBreaker circuit, OrderDeadLetters deadLetters,
+                         int capacity, int batchSize, Duration flushInterval) {
+        this("orders-write-behind", jdbc, backpressure, circuit, deadLetters, capacity, batchSize, flushInterval);
+    }
+
+    WriteBehindOrderSink(String name, JdbcTemplate jdbc, DbBackpressure backpressure, SinkCircuitBreaker circuit,
+                         OrderDeadLetters deadLetters, int capacity, int batchSize, Duration flushInterval) {
+        if (batchSize < 1 || capacity < batchSize) throw new IllegalArgumentException("need 1 <= batch-size <= capacity");
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        this.backpressure = backpressure;
+        this.circuit = circuit;
+        this.deadLetters = deadLetters;
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushNanos = flushInterval.toNanos();
+        this.writer = new Thread(this::run, name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public boolean acksAsynchronously() { return true; }
+
+    @Override
+    public void write(ConsumerRecord<String, OrderCreated> rec, OrderRow row, Acknowledgment ack, TestApp.OrderService.AfterStore stored) {
+        if (ack == null) throw new IllegalStateException("write-behind acks after the flush; the container must use MANUAL ack mode");
+        if (!running) throw new SinkUnavailableException("write-behind sink is closed", null);
+        try {
+            ring.put(new Pending(rec, row, ack, stored));
+            accepted.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SinkUnavailableException("interrupted waiting for room in the write-behind ring", e);
+        }
+    }
+
+    long flushes() { return flushes.get(); }
+
+    long written() { return written.get(); }
+
+    /** Accepted but not yet flushed, whether still in the ring or in the writer's current batch. */
+    long pending() { return accepted.get() - written.get(); }
+
+    /** Stops taking orders, flushes what is queued and waits for the writer. */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Simulates a crash: the writer stops at once and queued orders are dropped unwritten and unacked. */
+    void abandon() throws InterruptedException {
+        abandoned = true;
+        running = false;
+        writer.interrupt();
+        writer.join();
+        ring.clear();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (!abandoned && (running || !ring.isEmpty())) {
+                Pending first = ring.poll(flushNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + flushNanos;
+                while (batch.size() < batchSize) {
+                    ring.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) break;
+                    Pending next = ring.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // abandon(): leave the batch unacked
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        boolean rowByRow = false;
+        while (true) {
+            if (abandoned) return;
+            long start = System.nanoTime();
+            try {
+                if (rowByRow) writeEach(batch); else writeBatch(batch);
+                circuit.onSuccess();
+                // per row, so a large batch does not read as a slow database
+                backpressure.recordWrite((System.nanoTime() - start) / batch.size());
+                break;
+            } catch (DataAccessException e) {
+                if (!SinkCircuitBreaker.isOutage(e)) {
+                    rowByRow = true;
+                    continue;
+                }
+                // nothing is acked yet; the open circuit pauses the container while this batch waits for a probe
+                circuit.onFailure();
+                circuit.awaitProbe();
+            } catch (RuntimeException e) {
+                // e.g. the DLQ send of a bad row failed; retry the rows that are not done yet
+                Thread.sleep(RETRY_PAUSE_MS);
+            }
+        }
+        if (!afterStore(batch)) return;
+        for (Pending p : batch) p.ack.acknowledge();
+        flushes.incrementAndGet();
+        written.addAndGet(batch.size());
+    }
+
+    // Runs the hooks of the stored rows and waits for them; a row whose hooks failed gets them again
+    private boolean afterStore(List<Pending> batch) throws InterruptedException {
+        while (!abandoned) {
+            for (Pending p : batch) {
+                if (p.kept == null || (p.hooks != null && !p.hooks.isCompletedExceptionally())) continue;
+                try {
+                    p.hooks = p.stored.onStored(p.kept);
+                } catch (RuntimeException e) {
+                    p.hooks = CompletableFuture.failedFuture(e);
+                }
+            }
+            boolean failed = false;
+            for (Pending p : batch) {
+                if (p.hooks == null) continue;
+                try {
+                    p.hooks.join();
+                } catch (RuntimeException e) {
+                    failed = true;
+                }
+            }
+            if (!failed) return true;
+            Thread.sleep(RETRY_PAUSE_MS);
+        }
+        return false;
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Pending p : batch) args.add(p.row.args());
+        int[] inserted = tx.execute(status -> jdbc.batchUpdate(OrdersSchema.UPSERT, args));
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            p.kept = inserted[i] == 1 ? p.row : OrdersSchema.find(jdbc, p.row.orderId());
+        }
+    }
+
+    private void writeEach(List<Pending> batch) {
+        for (Pending p : batch) {
+            if (p.done) continue;
+            try {
+                p.kept = jdbc.update(OrdersSchema.UPSERT, p.row.args()) == 1 ? p.row : OrdersSchema.find(jdbc, p.row.orderId());
+            } catch (DataAccessException e) {
+                if (SinkCircuitBreaker.isOutage(e)) throw e;
+                deadLetters.send(p.rec, ("sink: " + e.getMostSpecificCause().getMessage()).getBytes(StandardCharsets.UTF_8));
+            }
+            p.done = true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.tests;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureId;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.example.avro.v2.OrderCreated;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Write-behind sink on dedicated containers (MANUAL, async acks) and topics, against the shared Postgres. */
+public class WriteBehindSinkIT extends KafkaConfigTest {
+
+    @Autowired ConsumerFactory<String, OrderCreated> avroConsumerFactory;
+    @Autowired KafkaTemplate<String, OrderCreated> avroKafkaTemplate;
+    @Autowired OrderDeadLetters orderDeadLetters;
+    @Autowired DbBackpressure dbBackpressure;
+    @Autowired SinkCircuitBreaker ordersCircuit;
+    @Autowired DataSource dataSource;
+    @Autowired JdbcTemplate jdbc;
+
+    @Test @AllureId("IT-009")
+    void crashWithUnflushedRing_losesNothing() throws Exception {
+        String topic = "orders.write-behind.crash", group = "write-behind-crash";
+        int n = 250;
+        createTopic(topic);
+        produce(avroKafkaTemplate, topic, "ORD-WB", n);
+
+        // flushes by size only: 2 x 100 land, the last 50 sit in the ring when we crash
+        var sink = new WriteBehindOrderSink(jdbc, dbBackpressure, ordersCircuit, orderDeadLetters, 1_000, 100, Duration.ofMinutes(5));
+        var container = container(topic, group, new TestApp.OrderService(sink, orderDeadLetters, List.of()), true);
+        org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30))
+                .until(() -> sink.written() == 200 && sink.pending() == 50);
+        assertThat(count("ORD-WB%")).isEqualTo(200);
+
+        sink.abandon();
+        container.stop();
+        long committed = committedTotal(group);
+        assertThat(committed).as("offsets never pass an unflushed row").isLessThanOrEqualTo(200);
+
+        var restarted = new WriteBehindOrderSink(jdbc, dbBackpressure, ordersCircuit, orderDeadLetters, 1_000, 100, Duration.ofMillis(100));
+        var again = container(topic, group, new TestApp.OrderService(restarted, orderDeadLetters, List.of()), true);
+        try {
+            org.awaitility.Awaitility.await().atMost(Duration.ofSeconds(30)).until(() -> count("ORD-WB%") == n);
+            assertThat(restarted.written()).isGreaterThanOrEqualTo(n - committed);
+        } finally {
+            again.stop();
+            restarted.close();
+        }
+    }
+
+    @Test @AllureId("IT-010")
+    void directSink_vs_writeBehind_throughput() throws Exception {
+        int n = Integer.getInteger("load.records", 5_000);
+        createTopic("orders.sink-bench.direct");
+        createTopic("orders.sink-bench.write-behind");
+        produce(avroKafkaTemplate, "orders.sink-bench.direct", "ORD-SD", n);
+        produce(avroKafkaTemplate, "orders.sink-bench.write-behind", "ORD-SW", n);
+
+        // a database a network hop away, as in ShardedOrderSinkIT: the round trip a batch pays once and a row pays every time
+        var remote = new FaultInjectingDataSource(dataSource);
+        remote.setDelay(Duration.ofMillis(10));
+        var remoteJdbc = new JdbcTemplate(remote);
+
+        long direct = timeToPersist("orders.sink-bench.direct", "ORD-SD%", n,
+                new DirectOrderSink(remoteJdbc, dbBackpressure, ordersCircuit), false);
+        var writeBehind = new WriteBehindOrderSink(remoteJdbc, dbBackpressure, ordersCircuit, orderDeadLetters, 4_096, 500, Duration.ofMillis(50));
+        long behind = timeToPersist("orders.sink-bench.write-behind", "ORD-SW%", n, writeBehind, true);
+
+        String report = String.format("%-14s %8s %10s %12s%n", "sink", "records", "elapsed ms", "records/s")
+                + String.format("%-14s %8d %10d %12.0f%n", "direct", n, direct / 1_000_000, n / (direct / 1e9))
+                + String.format("%-14s %8d %10d %12.0f  (%d flushes)%n", "write-behind", n, behind / 1_000_000, n / (behind / 1e9), writeBehind.flushes());
+        Allure.addAttachment("orders sink throughput", "text/plain", report);
+
+        assertThat(writeBehind.flushes()).isLessThan(n / 10);
+        assertThat(behind).as("write-behind vs direct, elapsed").isLessThan(direct);
+    }
+
+    private long timeToPersist(String topic, String like, int n, OrderSink sink, boolean asyncAcks) {
+        long start = System.nanoTime();
+        var container = container(topic, topic + "-group", new TestApp.OrderService(sink, orderDeadLetters, List.of()), asyncAcks);
+        try {
+            org.awaitility.Awaitility.await().atMost(Duration.ofMinutes(5)).pollInterval(Duration.ofMillis(50))
+                    .until(() -> count(like) == n);
+            return System.nanoTime() - start;
+        } finally {
+            container.stop();
+            sink.close();
+        }
+    }
+
+    private KafkaMessageListenerContainer<String, OrderCreated> container(String topic, String group,
+                                                                          TestApp.OrderService service, boolean asyncAcks) {
+        var props = new ContainerProperties(topic);
+        props.setGroupId(group);
+        if (asyncAcks) {
+            props.setAckMode(ContainerProperties.AckMode.MANUAL);
+            props.setAsyncAcks(true);
+        }
+        props.setMessageListener((AcknowledgingMessageListener<String, OrderCreated>) service::onOrder);
+        var container = new KafkaMessageListenerContainer<>(avroConsumerFactory, props);
+        container.start();
+        return container;
+    }
+
+    private int count(String like) {
+        return jdbc.queryForObject("select count(*) from orders where order_id like ?", Integer.class, like);
+    }
+
+    private static long committedTotal(String group) throws Exception {
+        try (Admin admin = admin()) {
+            return admin.listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata().get().values().stream()
+                    .filter(o -> o != null).mapToLong(OffsetAndMetadata::offset).sum();
+        }
+    }
+
+    private static void createTopic(String topic) throws Exception {
+        try (Admin admin = admin()) {
+            admin.createTopics(List.of(new NewTopic(topic, 3, (short) 1))).all().get();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.tests;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded Zipf(s) ranks over {@code [0, n)}: rank 0 is the most frequent. The CDF is precomputed once, so a
+ * draw is one random double and a binary search. Not thread-safe; give each thread its own sampler.
+ */
+final class ZipfSampler {
+
+    private final double[] cdf;
+    private final SplittableRandom random;
+
+    ZipfSampler(int n, double s, long seed) {
+        if (n < 1) throw new IllegalArgumentException("n must be positive: " + n);
+        this.cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) cdf[k] /= sum;
+        this.random = new SplittableRandom(seed);
+    }
+
+    int next() {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(i >= 0 ? i : -i - 1, cdf.length - 1);
+    }
+
+    int size() { return cdf.length; }
+}